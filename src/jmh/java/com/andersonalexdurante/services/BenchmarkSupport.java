@@ -0,0 +1,28 @@
+package com.andersonalexdurante.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
+
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    static void quietLogging() {
+        java.util.logging.Logger.getLogger("").setLevel(Level.WARNING);
+    }
+
+    static String readResource(String name) {
+        try (InputStream inputStream = BenchmarkSupport.class.getResourceAsStream(name)) {
+            if (inputStream == null) {
+                throw new IllegalStateException("Benchmark resource not found: " + name);
+            }
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.andersonalexdurante.services;
+
+import com.andersonalexdurante.dto.DollarRate;
+import com.andersonalexdurante.dto.DollarVariationDTO;
+import com.andersonalexdurante.interfaces.IDollarService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DollarRateBenchmark {
+
+    @Param({"5,43", "5,432"})
+    String dollarRateText;
+
+    @Param({"5,41"})
+    String lastDollarRateText;
+
+    private IDollarService dollarService;
+    private PokemonService pokemonService;
+    private DollarRate dollarRate;
+    private DollarRate lastDollarRate;
+    private Optional<DollarRate> lastRate;
+    private char[] providerNumber;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        this.dollarRate = DollarRate.parse(this.dollarRateText);
+        this.lastDollarRate = DollarRate.parse(this.lastDollarRateText);
+        this.dollarService = requestId -> this.dollarRate;
+        this.pokemonService = new PokemonService();
+        this.providerNumber = this.dollarRateText.replace(',', '.').concat("71").toCharArray();
+        this.lastRate = Optional.of(this.lastDollarRate);
+    }
+
+    @Benchmark
+    public DollarRate parseProviderNumber() {
+        return DollarRate.parse(this.providerNumber, 0, this.providerNumber.length, this.dollarRate.decimals());
+    }
+
+    @Benchmark
+    public String format() {
+        return this.dollarRate.format(2);
+    }
+
+    @Benchmark
+    public boolean dollarRateChanged() {
+        return this.dollarService.dollarRateChanged(this.lastRate, this.dollarRate);
+    }
+
+    @Benchmark
+    public DollarVariationDTO dollarVariation() {
+        return this.dollarService.getDollarVariation("benchmark", this.lastDollarRate, this.dollarRate);
+    }
+
+    @Benchmark
+    public int pokedexNumber() {
+        return this.pokemonService.getPokedexNumber(this.dollarRate);
+    }
+}
@@ -0,0 +1,43 @@
+package com.andersonalexdurante.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PokeApiExtractionBenchmark {
+
+    private PokemonService pokemonService;
+    private byte[] pokemonPayload;
+    private byte[] speciesPayload;
+
+    @Setup
+    public void setUp() throws IOException {
+        BenchmarkSupport.quietLogging();
+        this.pokemonService = new PokemonService();
+        this.pokemonService.objectMapper = new ObjectMapper();
+        this.pokemonPayload = BenchmarkSupport.readResource("/pokeapi/pokemon-25.json")
+                .getBytes(StandardCharsets.UTF_8);
+        this.speciesPayload = BenchmarkSupport.readResource("/pokeapi/pokemon-species-25.json")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public PokemonService.PokemonDocument readPokemon() throws IOException {
+        return this.pokemonService.readPokemon(new ByteArrayInputStream(this.pokemonPayload));
+    }
+
+    @Benchmark
+    public PokemonService.SpeciesDocument readSpecies() throws IOException {
+        return this.pokemonService.readSpecies(new ByteArrayInputStream(this.speciesPayload));
+    }
+}
@@ -0,0 +1,64 @@
+package com.andersonalexdurante.services;
+
+import com.andersonalexdurante.dto.DollarRate;
+import com.andersonalexdurante.dto.PokemonDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestBodyBenchmark {
+
+    private static final String CAPTION = "#25 - PIKACHU ⚡ O dólar subiu 2,0 centavos e fechou em R$ 5,43! "
+            + "Pikachu guarda eletricidade nas bochechas e hoje ela foi toda para o câmbio. #pokedolar #pokemon";
+    private static final DollarRate DOLLAR_RATE = DollarRate.parse("5,43");
+    private static final String BACKGROUND = "A sunny forest clearing with tall trees, scattered berries on "
+            + "the grass and distant storm clouds crackling with lightning.";
+
+    private InstagramService instagramService;
+    private VideoService videoService;
+    private URL videoUrl;
+    private PokemonDTO pokemon;
+
+    @Setup
+    public void setUp() throws MalformedURLException {
+        BenchmarkSupport.quietLogging();
+        this.instagramService = new InstagramService();
+        this.instagramService.objectMapper = new ObjectMapper();
+        this.videoService = new VideoService();
+        this.videoService.objectMapper = new ObjectMapper();
+        this.videoUrl = URI.create("https://pokedolarbucket.s3.us-east-2.amazonaws.com/renders/"
+                + "3f7a1c9e5b2d4f6a8c0e1b3d5f7a9c1e3b5d7f9a1c3e5b7d9f1a3c5e7b9d1f3a.mp4"
+                + "?X-Amz-Algorithm=AWS4-HMAC-SHA256&X-Amz-Expires=120&X-Amz-Signature=0123456789abcdef").toURL();
+        this.pokemon = new PokemonDTO(25, "PIKACHU", List.of("electric"),
+                List.of("When several of these POKéMON gather, their electricity could build and cause lightning storms."),
+                "forest");
+    }
+
+    @Benchmark
+    public String createMediaContainerBody() throws JsonProcessingException {
+        return this.instagramService.createMediaContainerBody(this.videoUrl, CAPTION);
+    }
+
+    @Benchmark
+    public String publishMediaContainerBody() throws JsonProcessingException {
+        return this.instagramService.publishMediaContainerBody("17890455678012345");
+    }
+
+    @Benchmark
+    public String createRenderPayload() throws JsonProcessingException {
+        return this.videoService.createRenderPayload(DOLLAR_RATE, true, this.pokemon, BACKGROUND,
+                "renders/3f7a1c9e5b2d4f6a8c0e1b3d5f7a9c1e3b5d7f9a1c3e5b7d9f1a3c5e7b9d1f3a.mp4");
+    }
+}
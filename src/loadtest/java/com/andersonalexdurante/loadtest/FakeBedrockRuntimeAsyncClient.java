@@ -0,0 +1,19 @@
+package com.andersonalexdurante.loadtest;
+
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeAsyncClient;
+
+/**
+ * Streaming is not simulated: the load test runs with {@code BEDROCK_CAPTION_STREAMING=false}, so any call falls
+ * through to the SDK's default {@code UnsupportedOperationException}.
+ */
+final class FakeBedrockRuntimeAsyncClient implements BedrockRuntimeAsyncClient {
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+}
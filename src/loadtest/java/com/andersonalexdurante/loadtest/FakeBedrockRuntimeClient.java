@@ -0,0 +1,69 @@
+package com.andersonalexdurante.loadtest;
+
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeClient;
+import software.amazon.awssdk.services.bedrockruntime.model.ContentBlock;
+import software.amazon.awssdk.services.bedrockruntime.model.ConversationRole;
+import software.amazon.awssdk.services.bedrockruntime.model.ConverseOutput;
+import software.amazon.awssdk.services.bedrockruntime.model.ConverseRequest;
+import software.amazon.awssdk.services.bedrockruntime.model.ConverseResponse;
+import software.amazon.awssdk.services.bedrockruntime.model.Message;
+import software.amazon.awssdk.services.bedrockruntime.model.StopReason;
+import software.amazon.awssdk.services.bedrockruntime.model.ThrottlingException;
+import software.amazon.awssdk.services.bedrockruntime.model.TokenUsage;
+
+/**
+ * Answers prompt-management calls with canned text; the prompt variables are echoed so captions differ per run.
+ * Injected faults surface as throttling, the error Bedrock returns most under load.
+ */
+final class FakeBedrockRuntimeClient implements BedrockRuntimeClient {
+
+    private final LatencyProfile latency;
+
+    FakeBedrockRuntimeClient(LatencyProfile latency) {
+        this.latency = latency;
+    }
+
+    @Override
+    public ConverseResponse converse(ConverseRequest request) {
+        if (this.latency.delayAndDecideFailure()) {
+            throw ThrottlingException.builder().statusCode(429).message("Injected throttling").build();
+        }
+
+        String text = request.promptVariables().containsKey("dollar_price")
+                ? "#" + request.promptVariables().get("pokemon_name").text() + " O dólar "
+                + request.promptVariables().get("dollar_variation").text() + " centavos e fechou em R$ "
+                + request.promptVariables().get("dollar_price").text() + "! #pokedolar #pokemon"
+                : "A quiet meadow at dusk where " + request.promptVariables().get("pokemon").text()
+                + " rests between tall grass and scattered stones.";
+        return ConverseResponse.builder()
+                .output(ConverseOutput.fromMessage(Message.builder()
+                        .role(ConversationRole.ASSISTANT)
+                        .content(ContentBlock.fromText(text))
+                        .build()))
+                .stopReason(StopReason.END_TURN)
+                .usage(usage(request, text))
+                .build();
+    }
+
+    private static TokenUsage usage(ConverseRequest request, String text) {
+        // roughly four characters per token, like the real models on English text
+        int inputTokens = request.promptVariables().values().stream()
+                .mapToInt(value -> value.text().length() / 4)
+                .sum();
+        int outputTokens = text.length() / 4;
+        return TokenUsage.builder()
+                .inputTokens(inputTokens)
+                .outputTokens(outputTokens)
+                .totalTokens(inputTokens + outputTokens)
+                .build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+}
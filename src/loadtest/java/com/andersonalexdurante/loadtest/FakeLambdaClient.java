@@ -0,0 +1,66 @@
+package com.andersonalexdurante.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.lambda.LambdaClient;
+import software.amazon.awssdk.services.lambda.model.InvocationType;
+import software.amazon.awssdk.services.lambda.model.InvokeRequest;
+import software.amazon.awssdk.services.lambda.model.InvokeResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Stands in for the renderer Lambda: after the render latency the requested {@code output_key} appears in
+ * {@link InMemoryS3Client}. Asynchronous ({@code Event}) invocations return 202 at once and render in the
+ * background, like the real function.
+ */
+final class FakeLambdaClient implements LambdaClient {
+
+    private final LatencyProfile latency;
+    private final InMemoryS3Client s3Client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    FakeLambdaClient(LatencyProfile latency, InMemoryS3Client s3Client) {
+        this.latency = latency;
+        this.s3Client = s3Client;
+    }
+
+    @Override
+    public InvokeResponse invoke(InvokeRequest request) {
+        String outputKey;
+        try {
+            outputKey = this.objectMapper.readTree(request.payload().asUtf8String()).path("output_key").asText();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (request.invocationType() == InvocationType.EVENT) {
+            Thread.ofVirtual().start(() -> this.render(outputKey));
+            return InvokeResponse.builder().statusCode(202).build();
+        }
+
+        boolean rendered = this.render(outputKey);
+        return InvokeResponse.builder()
+                .statusCode(200)
+                .payload(SdkBytes.fromUtf8String("{\"statusCode\":" + (rendered ? 200 : 500) + "}"))
+                .build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private boolean render(String outputKey) {
+        if (this.latency.delayAndDecideFailure()) {
+            return false;
+        }
+        this.s3Client.putObject(outputKey);
+        return true;
+    }
+}
@@ -0,0 +1,54 @@
+package com.andersonalexdurante.loadtest;
+
+import software.amazon.awssdk.services.ssm.SsmClient;
+import software.amazon.awssdk.services.ssm.model.GetParameterRequest;
+import software.amazon.awssdk.services.ssm.model.GetParameterResponse;
+import software.amazon.awssdk.services.ssm.model.GetParametersRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersResponse;
+import software.amazon.awssdk.services.ssm.model.Parameter;
+import software.amazon.awssdk.services.ssm.model.SsmException;
+
+/**
+ * Every parameter exists and holds a fixed token.
+ */
+final class FakeSsmClient implements SsmClient {
+
+    private final LatencyProfile latency;
+
+    FakeSsmClient(LatencyProfile latency) {
+        this.latency = latency;
+    }
+
+    @Override
+    public GetParameterResponse getParameter(GetParameterRequest request) {
+        this.call();
+        return GetParameterResponse.builder().parameter(parameter(request.name())).build();
+    }
+
+    @Override
+    public GetParametersResponse getParameters(GetParametersRequest request) {
+        this.call();
+        return GetParametersResponse.builder()
+                .parameters(request.names().stream().map(FakeSsmClient::parameter).toList())
+                .build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private void call() {
+        if (this.latency.delayAndDecideFailure()) {
+            throw SsmException.builder().statusCode(500).message("Injected fault").build();
+        }
+    }
+
+    private static Parameter parameter(String name) {
+        return Parameter.builder().name(name).value("loadtest-" + name).build();
+    }
+}
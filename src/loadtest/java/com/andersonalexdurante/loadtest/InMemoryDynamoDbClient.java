@@ -0,0 +1,124 @@
+package com.andersonalexdurante.loadtest;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tables as maps, covering the calls {@code DynamoDBService} makes: put/get/delete by key, {@code SET} updates
+ * and the newest-first query on the posts partition. Key schemas mirror the real tables.
+ */
+final class InMemoryDynamoDbClient implements DynamoDbClient {
+
+    private static final Map<String, List<String>> KEY_SCHEMAS = Map.of(
+            "PokeDolarPosts", List.of("context_id", "timestamp"),
+            "PokeDolarBedrockCache", List.of("cache_key"),
+            "PokeDolarCheckpoints", List.of("checkpoint_key"));
+
+    private final LatencyProfile latency;
+    private final Map<String, Map<String, Map<String, AttributeValue>>> tables = new ConcurrentHashMap<>();
+
+    InMemoryDynamoDbClient(LatencyProfile latency) {
+        this.latency = latency;
+    }
+
+    @Override
+    public PutItemResponse putItem(PutItemRequest request) {
+        this.call();
+        this.table(request.tableName()).put(key(request.tableName(), request.item()), new HashMap<>(request.item()));
+        return PutItemResponse.builder().build();
+    }
+
+    @Override
+    public GetItemResponse getItem(GetItemRequest request) {
+        this.call();
+        Map<String, AttributeValue> item = this.table(request.tableName()).get(key(request.tableName(),
+                request.key()));
+        return item == null ? GetItemResponse.builder().build() : GetItemResponse.builder().item(item).build();
+    }
+
+    @Override
+    public UpdateItemResponse updateItem(UpdateItemRequest request) {
+        this.call();
+        Map<String, AttributeValue> item = this.table(request.tableName())
+                .computeIfAbsent(key(request.tableName(), request.key()), key -> new ConcurrentHashMap<>(
+                        request.key()));
+        // SET a = :a, #b = :b
+        for (String assignment : request.updateExpression().replaceFirst("^SET ", "").split(",")) {
+            String[] sides = assignment.split("=");
+            String name = sides[0].trim();
+            item.put(request.expressionAttributeNames().getOrDefault(name, name),
+                    request.expressionAttributeValues().get(sides[1].trim()));
+        }
+        return UpdateItemResponse.builder().build();
+    }
+
+    @Override
+    public DeleteItemResponse deleteItem(DeleteItemRequest request) {
+        this.call();
+        this.table(request.tableName()).remove(key(request.tableName(), request.key()));
+        return DeleteItemResponse.builder().build();
+    }
+
+    @Override
+    public QueryResponse query(QueryRequest request) {
+        this.call();
+        // only "partitionKey = :value" is supported
+        String[] condition = request.keyConditionExpression().split("=");
+        String attribute = condition[0].trim();
+        AttributeValue value = request.expressionAttributeValues().get(condition[1].trim());
+        String sortKey = KEY_SCHEMAS.getOrDefault(request.tableName(), List.of(attribute)).getLast();
+
+        Comparator<Map<String, AttributeValue>> order = Comparator.comparing(item -> item.get(sortKey).s());
+        List<Map<String, AttributeValue>> items = this.table(request.tableName()).values().stream()
+                .filter(item -> value.equals(item.get(attribute)))
+                .sorted(Boolean.FALSE.equals(request.scanIndexForward()) ? order.reversed() : order)
+                .limit(request.limit() != null ? request.limit() : Integer.MAX_VALUE)
+                .toList();
+        return QueryResponse.builder().items(items).count(items.size()).build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private void call() {
+        if (this.latency.delayAndDecideFailure()) {
+            throw DynamoDbException.builder().statusCode(500).message("Injected fault").build();
+        }
+    }
+
+    private Map<String, Map<String, AttributeValue>> table(String tableName) {
+        return this.tables.computeIfAbsent(tableName, name -> new ConcurrentHashMap<>());
+    }
+
+    private static String key(String tableName, Map<String, AttributeValue> item) {
+        StringBuilder key = new StringBuilder();
+        for (String attribute : KEY_SCHEMAS.getOrDefault(tableName, List.copyOf(item.keySet()))) {
+            AttributeValue value = item.get(attribute);
+            key.append(value != null ? value.s() : "").append('|');
+        }
+        return key.toString();
+    }
+}
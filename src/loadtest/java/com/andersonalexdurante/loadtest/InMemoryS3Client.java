@@ -0,0 +1,80 @@
+package com.andersonalexdurante.loadtest;
+
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.CopyObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Object metadata only: keys and their last-modified time, written by {@link FakeLambdaClient} when it "renders".
+ */
+final class InMemoryS3Client implements S3Client {
+
+    private final LatencyProfile latency;
+    private final Map<String, Instant> objects = new ConcurrentHashMap<>();
+
+    InMemoryS3Client(LatencyProfile latency) {
+        this.latency = latency;
+    }
+
+    void putObject(String key) {
+        this.objects.put(key, Instant.now());
+    }
+
+    @Override
+    public HeadObjectResponse headObject(HeadObjectRequest request) {
+        this.call();
+        Instant lastModified = this.objects.get(request.key());
+        if (lastModified == null) {
+            throw NoSuchKeyException.builder().statusCode(404).message("Not found: " + request.key()).build();
+        }
+        return HeadObjectResponse.builder().lastModified(lastModified).contentLength(1L).build();
+    }
+
+    @Override
+    public ListObjectsV2Response listObjectsV2(ListObjectsV2Request request) {
+        this.call();
+        String prefix = request.prefix() != null ? request.prefix() : "";
+        List<S3Object> contents = this.objects.entrySet().stream()
+                .filter(object -> object.getKey().startsWith(prefix))
+                .map(object -> S3Object.builder().key(object.getKey()).lastModified(object.getValue()).build())
+                .toList();
+        return ListObjectsV2Response.builder().contents(contents).keyCount(contents.size()).isTruncated(false)
+                .build();
+    }
+
+    @Override
+    public CopyObjectResponse copyObject(CopyObjectRequest request) {
+        this.call();
+        if (this.objects.replace(request.destinationKey(), Instant.now()) == null) {
+            throw NoSuchKeyException.builder().statusCode(404).message("Not found: " + request.sourceKey()).build();
+        }
+        return CopyObjectResponse.builder().build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private void call() {
+        if (this.latency.delayAndDecideFailure()) {
+            throw S3Exception.builder().statusCode(500).message("Injected fault").build();
+        }
+    }
+}
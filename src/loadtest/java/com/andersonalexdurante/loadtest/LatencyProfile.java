@@ -0,0 +1,42 @@
+package com.andersonalexdurante.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Simulated latency and error rate of one dependency. Read from system properties
+ * ({@code loadtest.<name>.latency-ms}, {@code loadtest.<name>.jitter-ms}, {@code loadtest.<name>.error-rate}),
+ * falling back to the global {@code loadtest.error-rate}.
+ */
+record LatencyProfile(String name, long latencyMillis, long jitterMillis, double errorRate) {
+
+    static LatencyProfile fromProperties(String name, long defaultLatencyMillis) {
+        long latency = Long.getLong("loadtest." + name + ".latency-ms", defaultLatencyMillis);
+        return new LatencyProfile(name, latency,
+                Long.getLong("loadtest." + name + ".jitter-ms", latency / 4),
+                Double.parseDouble(System.getProperty("loadtest." + name + ".error-rate",
+                        System.getProperty("loadtest.error-rate", "0"))));
+    }
+
+    /**
+     * Waits for the simulated latency and tells whether this call should fail.
+     */
+    boolean delayAndDecideFailure() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = this.latencyMillis + (this.jitterMillis > 0 ? random.nextLong(-this.jitterMillis,
+                this.jitterMillis + 1) : 0);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return this.errorRate > 0 && random.nextDouble() < this.errorRate;
+    }
+
+    @Override
+    public String toString() {
+        return this.name + " " + this.latencyMillis + "±" + this.jitterMillis + " ms, " + this.errorRate * 100
+                + "% errors";
+    }
+}
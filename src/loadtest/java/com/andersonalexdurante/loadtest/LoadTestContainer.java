@@ -0,0 +1,155 @@
+package com.andersonalexdurante.loadtest;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Just enough dependency injection to build the real beans outside Quarkus: {@code @Inject} fields are filled by
+ * type (or by {@code @Named} supplier), {@code @ConfigProperty} fields from a map with the annotation defaults,
+ * and {@code @PostConstruct} methods are called. Startup observers are not fired.
+ */
+final class LoadTestContainer {
+
+    private final Map<String, String> config;
+    private final Map<Class<?>, Object> beans = new HashMap<>();
+    private final Map<String, Supplier<?>> namedBeans = new HashMap<>();
+
+    LoadTestContainer(Map<String, String> config) {
+        this.config = config;
+    }
+
+    <T> void register(Class<T> type, T bean) {
+        this.beans.put(type, bean);
+    }
+
+    void registerNamed(String name, Supplier<?> supplier) {
+        this.namedBeans.put(name, supplier);
+    }
+
+    /**
+     * Injects an instance created outside the container (e.g. a subclass standing in for a bean) and registers
+     * it under the given type.
+     */
+    <T> T manage(Class<T> type, T bean) {
+        this.beans.put(type, bean);
+        this.initialize(bean);
+        return bean;
+    }
+
+    synchronized <T> T get(Class<T> type) {
+        Object existing = this.beans.get(type);
+        if (existing != null) {
+            return type.cast(existing);
+        }
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            throw new IllegalStateException("No bean registered for " + type.getName());
+        }
+
+        try {
+            Constructor<T> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            T bean = constructor.newInstance();
+            // registered before injection so that circular references resolve to the same instance
+            this.beans.put(type, bean);
+            this.initialize(bean);
+            return bean;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create bean " + type.getName(), e);
+        }
+    }
+
+    private void initialize(Object bean) {
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> type = bean.getClass(); type != Object.class; type = type.getSuperclass()) {
+            hierarchy.addFirst(type);
+        }
+
+        try {
+            for (Class<?> type : hierarchy) {
+                for (Field field : type.getDeclaredFields()) {
+                    if (field.isAnnotationPresent(Inject.class)) {
+                        field.setAccessible(true);
+                        Named named = field.getAnnotation(Named.class);
+                        field.set(bean, named != null ? this.named(named.value()) : this.get(field.getType()));
+                    } else if (field.isAnnotationPresent(ConfigProperty.class)) {
+                        field.setAccessible(true);
+                        field.set(bean, this.configValue(field, field.getAnnotation(ConfigProperty.class)));
+                    }
+                }
+            }
+            for (Class<?> type : hierarchy) {
+                for (Method method : type.getDeclaredMethods()) {
+                    if (method.isAnnotationPresent(PostConstruct.class)) {
+                        method.setAccessible(true);
+                        method.invoke(bean);
+                    }
+                }
+            }
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Cannot initialise bean " + bean.getClass().getName(), e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot initialise bean " + bean.getClass().getName(), e);
+        }
+    }
+
+    private Object named(String name) {
+        Supplier<?> supplier = this.namedBeans.get(name);
+        if (supplier == null) {
+            throw new IllegalStateException("No bean named " + name);
+        }
+        return supplier.get();
+    }
+
+    private Object configValue(Field field, ConfigProperty property) {
+        String value = this.config.get(property.name());
+        if (value == null && !ConfigProperty.UNCONFIGURED_VALUE.equals(property.defaultValue())) {
+            value = property.defaultValue();
+        }
+
+        Class<?> type = field.getType();
+        if (type == Optional.class) {
+            return Optional.ofNullable(value);
+        }
+        if (value == null) {
+            throw new IllegalStateException("Missing configuration " + property.name() + " for "
+                    + field.getDeclaringClass().getSimpleName());
+        }
+        if (type == String.class) {
+            return value;
+        }
+        if (type == int.class || type == Integer.class) {
+            return Integer.parseInt(value);
+        }
+        if (type == long.class || type == Long.class) {
+            return Long.parseLong(value);
+        }
+        if (type == double.class || type == Double.class) {
+            return Double.parseDouble(value);
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return Boolean.parseBoolean(value);
+        }
+        if (type == List.class && field.getGenericType() instanceof ParameterizedType parameterized
+                && parameterized.getActualTypeArguments()[0] == String.class) {
+            return Arrays.stream(value.split(",")).map(String::trim).filter(item -> !item.isEmpty()).toList();
+        }
+        throw new IllegalStateException("Unsupported configuration type " + type.getName() + " for "
+                + property.name());
+    }
+}
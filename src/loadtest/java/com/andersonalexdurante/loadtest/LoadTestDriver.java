@@ -0,0 +1,228 @@
+package com.andersonalexdurante.loadtest;
+
+import com.andersonalexdurante.PokeDolarLambdaHandler;
+import com.andersonalexdurante.configuration.DollarServiceProducer;
+import com.andersonalexdurante.configuration.ObjectMapperProducer;
+import com.andersonalexdurante.services.MetricsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeAsyncClient;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.lambda.LambdaClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.ssm.SsmClient;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+
+/**
+ * Runs the publish mode of {@link PokeDolarLambdaHandler} end to end against {@link StubApiServer} and the
+ * in-memory AWS clients, then reports throughput and latency percentiles for the whole run, every pipeline
+ * stage and every timed call.
+ * <p>
+ * Settings are system properties: {@code loadtest.iterations}, {@code loadtest.warmup},
+ * {@code loadtest.concurrency}, per-dependency latency and errors (see {@link LatencyProfile}, names
+ * {@code pokeapi awesome wise graph dynamodb s3 ssm bedrock lambda}) and any application setting as
+ * {@code loadtest.config.<NAME>}. The report is also written as JSON to the path given as first argument.
+ */
+public final class LoadTestDriver {
+
+    private static final double[] PERCENTILES = {50, 90, 99};
+
+    private LoadTestDriver() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iterations = Integer.getInteger("loadtest.iterations", 100);
+        int warmup = Integer.getInteger("loadtest.warmup", 10);
+        int concurrency = Integer.getInteger("loadtest.concurrency", 1);
+        Path output = Path.of(args.length > 0 ? args[0] : "target/loadtest-result.json");
+        java.util.logging.Logger.getLogger("").setLevel(Level.WARNING);
+
+        Map<String, LatencyProfile> httpProfiles = Map.of(
+                "pokeapi", LatencyProfile.fromProperties("pokeapi", 40),
+                "awesome", LatencyProfile.fromProperties("awesome", 30),
+                "wise", LatencyProfile.fromProperties("wise", 30),
+                "graph", LatencyProfile.fromProperties("graph", 60));
+        List<LatencyProfile> awsProfiles = new ArrayList<>();
+
+        try (StubApiServer stubs = new StubApiServer(httpProfiles,
+                Duration.ofMillis(Long.getLong("loadtest.graph.processing-ms", 300)),
+                Integer.getInteger("loadtest.pokeapi.padding-kb", 64))) {
+            LoadTestContainer container = new LoadTestContainer(config(stubs.baseUrl()));
+            ObjectMapper objectMapper = new ObjectMapperProducer().objectMapper();
+            container.register(ObjectMapper.class, objectMapper);
+
+            InMemoryS3Client s3Client = new InMemoryS3Client(profile(awsProfiles, "s3", 15));
+            container.register(S3Client.class, s3Client);
+            container.register(S3Presigner.class, S3Presigner.builder()
+                    .region(Region.US_EAST_2)
+                    .credentialsProvider(StaticCredentialsProvider.create(
+                            AwsBasicCredentials.create("loadtest", "loadtest")))
+                    .build());
+            container.register(DynamoDbClient.class, new InMemoryDynamoDbClient(profile(awsProfiles, "dynamodb", 8)));
+            container.register(SsmClient.class, new FakeSsmClient(profile(awsProfiles, "ssm", 20)));
+            container.register(BedrockRuntimeClient.class,
+                    new FakeBedrockRuntimeClient(profile(awsProfiles, "bedrock", 800)));
+            container.register(BedrockRuntimeAsyncClient.class, new FakeBedrockRuntimeAsyncClient());
+            container.register(LambdaClient.class,
+                    new FakeLambdaClient(profile(awsProfiles, "lambda", 1500), s3Client));
+
+            RecordingMetricsService metrics = container.manage(MetricsService.class, new RecordingMetricsService());
+            DollarServiceProducer dollarServiceProducer = container.get(DollarServiceProducer.class);
+            container.registerNamed("dollarService", dollarServiceProducer::getDollarService);
+            PokeDolarLambdaHandler handler = container.get(PokeDolarLambdaHandler.class);
+
+            System.out.printf("Warming up with %d runs...%n", warmup);
+            run(handler, warmup, concurrency);
+            metrics.reset();
+            stubs.requests().clear();
+
+            System.out.printf("Running %d runs with concurrency %d...%n", iterations, concurrency);
+            List<Double> runLatencies = Collections.synchronizedList(new ArrayList<>());
+            long start = System.nanoTime();
+            run(handler, iterations, concurrency, runLatencies);
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            ObjectNode report = report(objectMapper, iterations, concurrency, elapsed, runLatencies, metrics, stubs,
+                    httpProfiles, awsProfiles);
+            if (output.getParent() != null) {
+                Files.createDirectories(output.getParent());
+            }
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(output.toFile(), report);
+            System.out.println("Report written to " + output.toAbsolutePath());
+        }
+    }
+
+    private static Map<String, String> config(String baseUrl) {
+        Map<String, String> config = new HashMap<>();
+        config.put("POKEAPI_URL", baseUrl + "/pokeapi/api/v2/pokemon/");
+        config.put("AWESOMEAPI_DOLLAR_URL", baseUrl + "/awesome/json/last/USD-BRL");
+        config.put("AWESOMEAPI_DAILY_DOLLAR_URL", baseUrl + "/awesome/json/daily/USD-BRL/365");
+        config.put("WISEAPI_DOLLAR_URL", baseUrl + "/wise/v1/rates?source=USD&target=BRL");
+        config.put("INSTAGRAM_GRAPH_API_URL", baseUrl + "/graph/");
+        config.put("INSTAGRAM_POKEDOLAR_USERID", "17841400000000000");
+        config.put("INSTAGRAM_MEDIA_POLLING_INITIAL_DELAY_MS", "100");
+        config.put("INSTAGRAM_MEDIA_POLLING_MAX_DELAY_MS", "500");
+        config.put("INSTAGRAM_PUBLISH_LIMIT_PER_DAY", "1000000");
+        config.put("BEDROCK_CAPTION_PROMPT_ARN", "arn:aws:bedrock:us-east-2:000000000000:prompt/CAPTION:1");
+        config.put("BEDROCK_IMAGE_BACKGROUND_PROMPT_ARN",
+                "arn:aws:bedrock:us-east-2:000000000000:prompt/BACKGROUND:1");
+        config.put("BEDROCK_CAPTION_STREAMING", "false");
+        config.put("IMAGE_GENERATOR_LAMBDA", "pokedolar-renderer");
+        config.put("POKEDEX_PACK_PATH", "target/loadtest-no-pokedex.pack");
+        config.put("HTTP_MAX_CONCURRENT_REQUESTS_PER_HOST", "64");
+        config.put("METRICS_ENABLED", "false");
+
+        String prefix = "loadtest.config.";
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith(prefix))
+                .forEach(name -> config.put(name.substring(prefix.length()), System.getProperty(name)));
+        return config;
+    }
+
+    private static LatencyProfile profile(List<LatencyProfile> profiles, String name, long defaultLatencyMillis) {
+        LatencyProfile profile = LatencyProfile.fromProperties(name, defaultLatencyMillis);
+        profiles.add(profile);
+        return profile;
+    }
+
+    private static void run(PokeDolarLambdaHandler handler, int runs, int concurrency) {
+        run(handler, runs, concurrency, Collections.synchronizedList(new ArrayList<>()));
+    }
+
+    private static void run(PokeDolarLambdaHandler handler, int runs, int concurrency, List<Double> latencies) {
+        try (ExecutorService executor = Executors.newFixedThreadPool(concurrency)) {
+            for (int i = 0; i < runs; i++) {
+                executor.submit(() -> {
+                    long start = System.nanoTime();
+                    handler.handleRequest(Map.of("mode", "publish"), null);
+                    latencies.add((System.nanoTime() - start) / 1_000_000.0);
+                });
+            }
+        }
+    }
+
+    private static ObjectNode report(ObjectMapper objectMapper, int iterations, int concurrency, Duration elapsed,
+                                     List<Double> runLatencies, RecordingMetricsService metrics,
+                                     StubApiServer stubs, Map<String, LatencyProfile> httpProfiles,
+                                     List<LatencyProfile> awsProfiles) {
+        double throughput = iterations / Math.max(0.001, elapsed.toNanos() / 1e9);
+        long failures = metrics.count("failure.run");
+        long skipped = metrics.count("skip.rate-unchanged");
+
+        System.out.println();
+        System.out.printf(Locale.ROOT, "Runs: %d (concurrency %d) in %.1f s -> %.2f runs/s. Failed: %d, skipped: %d%n",
+                iterations, concurrency, elapsed.toMillis() / 1000.0, throughput, failures, skipped);
+        System.out.printf(Locale.ROOT, "%-40s %7s %9s %9s %9s %9s%n", "latency (ms)", "count", "p50", "p90", "p99",
+                "max");
+
+        ObjectNode report = objectMapper.createObjectNode();
+        report.put("iterations", iterations)
+                .put("concurrency", concurrency)
+                .put("elapsedMillis", elapsed.toMillis())
+                .put("runsPerSecond", throughput)
+                .put("failures", failures)
+                .put("skipped", skipped);
+        ObjectNode latencies = report.putObject("latencies");
+
+        Map<String, List<Double>> all = new TreeMap<>(metrics.latencies());
+        all.put("run", runLatencies);
+        all.forEach((name, values) -> {
+            List<Double> sorted;
+            synchronized (values) {
+                sorted = new ArrayList<>(values);
+            }
+            Collections.sort(sorted);
+            if (sorted.isEmpty()) {
+                return;
+            }
+
+            ObjectNode entry = latencies.putObject(name).put("count", sorted.size());
+            StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "%-40s %7d", name, sorted.size()));
+            for (double percentile : PERCENTILES) {
+                double value = percentile(sorted, percentile);
+                entry.put("p" + (int) percentile, value);
+                line.append(String.format(Locale.ROOT, " %9.1f", value));
+            }
+            entry.put("max", sorted.getLast());
+            System.out.println(line.append(String.format(Locale.ROOT, " %9.1f", sorted.getLast())));
+        });
+
+        ObjectNode counters = report.putObject("counters");
+        new TreeMap<>(metrics.counters()).forEach((name, count) -> counters.put(name, count.sum()));
+        ObjectNode requests = report.putObject("stubRequests");
+        new TreeMap<>(stubs.requests()).forEach((api, count) -> requests.put(api, count.sum()));
+        System.out.println("Counters: " + counters);
+        System.out.println("Stub requests: " + requests);
+
+        List<LatencyProfile> profiles = new ArrayList<>(httpProfiles.values());
+        profiles.addAll(awsProfiles);
+        ArrayNode profileNodes = report.putArray("profiles");
+        profiles.forEach(profile -> profileNodes.add(profile.toString()));
+        System.out.println("Profiles: " + profiles);
+        return report;
+    }
+
+    private static double percentile(List<Double> sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100 * sorted.size());
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, rank - 1)));
+    }
+}
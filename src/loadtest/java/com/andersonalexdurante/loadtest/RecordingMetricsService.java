@@ -0,0 +1,53 @@
+package com.andersonalexdurante.loadtest;
+
+import com.andersonalexdurante.services.MetricsService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps every latency and counter the pipeline reports, across runs, so the driver can compute percentiles
+ * per stage. Everything is still passed on to {@link MetricsService}.
+ */
+class RecordingMetricsService extends MetricsService {
+
+    private final Map<String, List<Double>> latencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordLatency(String requestId, String name, Duration duration) {
+        List<Double> values = this.latencies.computeIfAbsent(name, key -> new ArrayList<>());
+        synchronized (values) {
+            values.add(duration.toNanos() / 1_000_000.0);
+        }
+        super.recordLatency(requestId, name, duration);
+    }
+
+    @Override
+    public void increment(String requestId, String name) {
+        this.counters.computeIfAbsent(name, key -> new LongAdder()).increment();
+        super.increment(requestId, name);
+    }
+
+    long count(String name) {
+        LongAdder counter = this.counters.get(name);
+        return counter != null ? counter.sum() : 0;
+    }
+
+    Map<String, LongAdder> counters() {
+        return this.counters;
+    }
+
+    Map<String, List<Double>> latencies() {
+        return this.latencies;
+    }
+
+    void reset() {
+        this.latencies.clear();
+        this.counters.clear();
+    }
+}
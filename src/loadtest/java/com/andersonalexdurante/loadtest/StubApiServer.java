@@ -0,0 +1,172 @@
+package com.andersonalexdurante.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One local HTTP server standing in for PokeAPI ({@code /pokeapi}), AwesomeAPI ({@code /awesome}), Wise
+ * ({@code /wise}) and the Instagram Graph API ({@code /graph}). Each API has its own latency profile, and the
+ * rate APIs walk the rate by a few cents on every call so that every run has something to post.
+ */
+final class StubApiServer implements AutoCloseable {
+
+    private static final String[] TYPES = {"normal", "fire", "water", "electric", "grass", "ice", "fighting",
+            "poison", "ground", "flying", "psychic", "bug", "rock", "ghost", "dragon"};
+
+    private final HttpServer server;
+    private final Map<String, LatencyProfile> profiles;
+    private final Map<String, LongAdder> requests = new ConcurrentHashMap<>();
+    private final Map<String, Instant> containers = new ConcurrentHashMap<>();
+    private final AtomicLong rateTenThousandths = new AtomicLong(54_300);
+    private final AtomicLong ids = new AtomicLong(17_900_000_000_000_000L);
+    private final Duration mediaProcessingTime;
+    private final String pokemonPadding;
+
+    StubApiServer(Map<String, LatencyProfile> profiles, Duration mediaProcessingTime, int pokemonPaddingKb)
+            throws IOException {
+        this.profiles = profiles;
+        this.mediaProcessingTime = mediaProcessingTime;
+        // the real pokemon documents are mostly moves and sprites the service skips over
+        this.pokemonPadding = "\"x\",".repeat(Math.max(0, pokemonPaddingKb * 256));
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.createContext("/pokeapi/", this.handler("pokeapi", this::pokeApi));
+        this.server.createContext("/awesome/", this.handler("awesome", this::awesomeApi));
+        this.server.createContext("/wise/", this.handler("wise", this::wiseApi));
+        this.server.createContext("/graph/", this.handler("graph", this::graphApi));
+        this.server.start();
+    }
+
+    String baseUrl() {
+        return "http://" + this.server.getAddress().getHostString() + ":" + this.server.getAddress().getPort();
+    }
+
+    Map<String, LongAdder> requests() {
+        return this.requests;
+    }
+
+    @Override
+    public void close() {
+        this.server.stop(0);
+    }
+
+    private HttpHandler handler(String api, Route route) {
+        LatencyProfile profile = this.profiles.get(api);
+        return exchange -> {
+            try (exchange) {
+                this.requests.computeIfAbsent(api, key -> new LongAdder()).increment();
+                if (profile.delayAndDecideFailure()) {
+                    respond(exchange, 503, "{\"error\":{\"message\":\"Injected fault\",\"code\":2}}");
+                    return;
+                }
+                Response response = route.handle(exchange, exchange.getRequestURI().getPath()
+                        .substring(api.length() + 2));
+                respond(exchange, response.status(), response.body());
+            }
+        };
+    }
+
+    private Response pokeApi(HttpExchange exchange, String path) {
+        // api/v2/pokemon/{n} and api/v2/pokemon-species/{n}/
+        String[] segments = path.split("/");
+        int number = Integer.parseInt(segments[segments.length - 1]);
+        String name = "stubmon-" + number;
+        if (path.contains("pokemon-species")) {
+            return new Response(200, "{\"id\":" + number + ",\"habitat\":{\"name\":\"forest\",\"url\":\"\"},"
+                    + "\"flavor_text_entries\":[" + flavorText(name, "It hides in tall grass.", "en") + ","
+                    + flavorText(name, "Se esconde na grama alta.", "pt") + ","
+                    + flavorText(name, "It sparks when it is\nexcited.", "en") + ","
+                    + flavorText(name, "It hides in tall grass.", "en") + "]}");
+        }
+        String type = TYPES[number % TYPES.length];
+        return new Response(200, "{\"id\":" + number + ",\"moves\":[" + this.pokemonPadding + "\"x\"],"
+                + "\"species\":{\"name\":\"" + name + "\",\"url\":\"" + this.baseUrl()
+                + "/pokeapi/api/v2/pokemon-species/" + number + "/\"},"
+                + "\"types\":[{\"slot\":1,\"type\":{\"name\":\"" + type + "\",\"url\":\"\"}}]}");
+    }
+
+    private Response awesomeApi(HttpExchange exchange, String path) {
+        // json/last/{pair}
+        String pair = path.substring(path.lastIndexOf('/') + 1);
+        return new Response(200, "{\"" + pair.replace("-", "") + "\":{\"code\":\"" + pair.split("-")[0]
+                + "\",\"bid\":\"" + this.nextRate() + "\"}}");
+    }
+
+    private Response wiseApi(HttpExchange exchange, String path) {
+        return new Response(200, "[{\"source\":\"USD\",\"target\":\"BRL\",\"rate\":" + this.nextRate() + "}]");
+    }
+
+    private Response graphApi(HttpExchange exchange, String path) {
+        String[] segments = path.split("/");
+        if (segments.length == 1) {
+            Instant createdAt = this.containers.get(segments[0]);
+            String status = createdAt == null ? "ERROR"
+                    : createdAt.plus(this.mediaProcessingTime).isAfter(Instant.now()) ? "IN_PROGRESS" : "FINISHED";
+            return new Response(200, "{\"status_code\":\"" + status + "\",\"id\":\"" + segments[0] + "\"}");
+        }
+        return switch (segments[1]) {
+            case "media" -> {
+                String id = String.valueOf(this.ids.incrementAndGet());
+                this.containers.put(id, Instant.now());
+                yield new Response(200, "{\"id\":\"" + id + "\"}");
+            }
+            case "media_publish" -> new Response(200, "{\"id\":\"" + this.ids.incrementAndGet() + "\"}");
+            case "content_publishing_limit" -> new Response(200,
+                    "{\"data\":[{\"quota_usage\":0,\"config\":{\"quota_total\":50,\"quota_duration\":86400}}]}");
+            default -> new Response(404, "{\"error\":{\"message\":\"Unknown path\",\"code\":100}}");
+        };
+    }
+
+    private String nextRate() {
+        // a few cents up or down, kept inside the range that maps to a Pokemon
+        long step = ThreadLocalRandom.current().nextLong(1, 6) * 100 * (ThreadLocalRandom.current().nextBoolean()
+                ? 1 : -1);
+        long rate = this.rateTenThousandths.updateAndGet(current -> {
+            long next = current + step;
+            return next < 10_100 || next > 99_900 ? current - step : next;
+        });
+        return String.format(Locale.ROOT, "%d.%04d", rate / 10_000, rate % 10_000);
+    }
+
+    private static String flavorText(String name, String text, String language) {
+        return "{\"flavor_text\":\"" + name + ". " + text.replace("\n", "\\n") + "\",\"language\":{\"name\":\""
+                + language + "\",\"url\":\"\"},\"version\":{\"name\":\"red\",\"url\":\"\"}}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Route {
+        Response handle(HttpExchange exchange, String path) throws IOException;
+    }
+
+    private record Response(int status, String body) {
+    }
+}
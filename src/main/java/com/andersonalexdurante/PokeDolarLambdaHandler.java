@@ -2,19 +2,25 @@ package com.andersonalexdurante;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
-import com.andersonalexdurante.dto.DollarVariationDTO;
-import com.andersonalexdurante.dto.PokemonDTO;
-import com.andersonalexdurante.dto.RandomSelection;
-import com.andersonalexdurante.interfaces.IDollarService;
-import com.andersonalexdurante.services.*;
+import com.andersonalexdurante.dto.Channel;
+import com.andersonalexdurante.pipeline.PostingPipeline;
+import com.andersonalexdurante.services.BackfillService;
+import com.andersonalexdurante.services.BackgroundCachePrewarmService;
+import com.andersonalexdurante.services.ChannelService;
+import com.andersonalexdurante.services.DynamoDBService;
+import com.andersonalexdurante.services.MetricsService;
+import com.andersonalexdurante.services.OutboundHttpClient;
+import com.andersonalexdurante.services.PrerenderService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import jakarta.inject.Named;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
-import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -22,24 +28,28 @@ import java.util.UUID;
 public class PokeDolarLambdaHandler implements RequestHandler<Object, Void> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PokeDolarLambdaHandler.class);
+    private static final Duration PUBLISH_RESERVE = Duration.ofSeconds(20);
+    private static final String PUBLISH_MODE = "publish";
+    private static final String PREWARM_BACKGROUND_CACHE_MODE = "prewarm-background-cache";
+    private static final String PRERENDER_MODE = "prerender";
+    private static final String BACKFILL_MODE = "backfill";
 
     @Inject
-    @Named("dollarService")
-    IDollarService dollarService;
+    PostingPipeline postingPipeline;
     @Inject
-    PokemonService pokemonService;
+    OutboundHttpClient outboundHttpClient;
     @Inject
-    DynamoDBService dynamoDBService;
+    BackgroundCachePrewarmService backgroundCachePrewarmService;
     @Inject
-    S3Service s3Service;
+    PrerenderService prerenderService;
     @Inject
-    VideoService videoService;
+    DynamoDBService dynamoDBService;
     @Inject
-    BedrockService bedrockService;
+    MetricsService metricsService;
     @Inject
-    InstagramService instagramService;
+    BackfillService backfillService;
     @Inject
-    RandomnessService randomnessService;
+    ChannelService channelService;
 
     @Override
     public Void handleRequest(Object event, Context context) {
@@ -48,51 +58,66 @@ public class PokeDolarLambdaHandler implements RequestHandler<Object, Void> {
 
         LOGGER.info("[{}] [START] Executing Pokemon Video Generator Lambda", requestId);
 
+        String mode = this.getEventAttribute(event, "mode").orElse(PUBLISH_MODE);
         try {
-            String dollarExchangeRate = this.dollarService.getDollarExchangeRate(requestId);
-            int pokedexNumber = this.pokemonService.getPokedexNumber(dollarExchangeRate);
-            Optional<String> lastDollarRate = this.dynamoDBService.getLastDollarRate(requestId);
-
-            if (!this.dollarService.dollarRateChanged(lastDollarRate, dollarExchangeRate)) {
-                LOGGER.info("[{}] Dollar rate {} dont changed! Skipping", requestId, dollarExchangeRate);
-                return null;
+            switch (mode) {
+                case PUBLISH_MODE -> this.postingPipeline.publish(requestId, this.getPublishDeadline(context));
+                case PREWARM_BACKGROUND_CACHE_MODE -> this.backgroundCachePrewarmService.prewarm(requestId,
+                        this.getEventAttribute(event, "from").map(Integer::parseInt).orElse(1),
+                        this.getEventAttribute(event, "to").map(Integer::parseInt).orElse(99));
+                case PRERENDER_MODE -> this.prerender(requestId, this.getEventAttribute(event, "channel")
+                        .flatMap(this.channelService::getChannel)
+                        .orElseGet(this.channelService::getDefaultChannel), this.getPublishDeadline(context));
+                case BACKFILL_MODE -> this.backfillService.backfill(requestId,
+                        this.getEventAttribute(event, "job_id"),
+                        this.backfillService.resolveRates(requestId, this.getEventList(event, "rates"),
+                                this.getEventAttribute(event, "start_date"),
+                                this.getEventAttribute(event, "end_date")),
+                        this.getEventAttribute(event, "dry_run").map(Boolean::parseBoolean).orElse(false),
+                        this.getPublishDeadline(context));
+                default -> LOGGER.warn("[{}] Unknown execution mode: {}", requestId, mode);
             }
-
-            LOGGER.info("[{}] Fetching Pokemon data for Pokedex #{}", requestId, pokedexNumber);
-            PokemonDTO pokemonData = this.pokemonService.getPokemonData(requestId, pokedexNumber);
-
-            LOGGER.info("[{}] Analyzing whether the price of the dollar rose or fell", requestId);
-            DollarVariationDTO dollarVariation = this.dollarService.getDollarVariation(requestId,
-                    lastDollarRate.orElse("0"), dollarExchangeRate);
-
-            LOGGER.info("[{}] Generating image background description with AWS Bedrock", requestId);
-            String backgroundImageDescription = this.bedrockService.generateImageBackgroundDescription(requestId,
-                    pokemonData);
-
-            LOGGER.info("[{}] Starting video generation", requestId);
-            this.videoService.generatePostVideo(requestId, dollarExchangeRate,
-                    dollarVariation.isUp(), pokemonData, backgroundImageDescription);
-
-            LOGGER.info("[{}] Generating post caption with AWS Bedrock", requestId);
-            String postCaption = this.bedrockService.generateCaption(requestId, pokemonData, dollarVariation,
-                    dollarExchangeRate);
-
-            LOGGER.info("[{}] Getting post video URL from S3", requestId);
-            URL postVideoUrl = this.s3Service.getPostVideoUrl(requestId);
-
-            LOGGER.info("[{}] Posting video to Instagram", requestId);
-            this.instagramService.post(requestId, pokedexNumber, postVideoUrl,
-                    postCaption);
-
-            LOGGER.info("[{}] Saving new post in DynamoDB", requestId);
-            this.dynamoDBService.savePost(requestId, pokemonData.name(), dollarExchangeRate, postCaption);
         } catch (Exception e) {
             LOGGER.error("[{}] [ERROR] An unexpected error occurred. - {}", requestId, e.getMessage(), e);
+            this.metricsService.increment(requestId, "failure.run");
         } finally {
+            LOGGER.info("[{}] HTTP host stats: {}", requestId, this.outboundHttpClient.getHostStats());
+            this.metricsService.flush(requestId, mode);
             LOGGER.info("[{}] [END] Execution finished", requestId);
             MDC.clear();
         }
 
         return null;
     }
+
+    private void prerender(String requestId, Channel channel, Instant deadline) {
+        this.dynamoDBService.getLastDollarRate(requestId, channel.postsContextId()).ifPresentOrElse(
+                lastDollarRate -> this.prerenderService.prerenderNeighbours(requestId, channel, lastDollarRate,
+                        deadline),
+                () -> LOGGER.warn("[{}] No rate posted on {} to pre-render around", requestId, channel.id()));
+    }
+
+    private Optional<String> getEventAttribute(Object event, String attribute) {
+        if (event instanceof Map<?, ?> eventMap && eventMap.get(attribute) != null) {
+            return Optional.of(String.valueOf(eventMap.get(attribute)));
+        }
+        return Optional.empty();
+    }
+
+    private List<String> getEventList(Object event, String attribute) {
+        if (event instanceof Map<?, ?> eventMap && eventMap.get(attribute) instanceof List<?> values) {
+            return values.stream().map(String::valueOf).toList();
+        }
+        // rates use a decimal comma, so a plain string lists them separated by ';' or spaces
+        return this.getEventAttribute(event, attribute)
+                .map(values -> List.of(values.split("[;\\s]+")))
+                .orElse(List.of());
+    }
+
+    private Instant getPublishDeadline(Context context) {
+        if (context == null) {
+            return Instant.MAX;
+        }
+        return Instant.now().plusMillis(context.getRemainingTimeInMillis()).minus(PUBLISH_RESERVE);
+    }
 }
\ No newline at end of file
@@ -2,9 +2,20 @@ package com.andersonalexdurante.configuration;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Produces;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeAsyncClient;
 import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.lambda.LambdaClient;
+
+import java.time.Duration;
+import java.util.Optional;
 
 @ApplicationScoped
 public class AwsClientProducers {
@@ -14,6 +25,31 @@ public class AwsClientProducers {
     public BedrockRuntimeClient bedrockRuntimeClient() {
         return BedrockRuntimeClient.builder()
                 .region(Region.US_EAST_2)
+                .overrideConfiguration(ClientOverrideConfiguration.builder()
+                        .retryPolicy(RetryPolicy.none()) // BedrockService retries with its own backoff
+                        .build())
+                .build();
+    }
+
+    @Produces
+    @SecondaryRegion
+    @ApplicationScoped
+    public BedrockRuntimeClient secondaryBedrockRuntimeClient(
+            @ConfigProperty(name = "BEDROCK_SECONDARY_REGION") Optional<String> secondaryRegion) {
+        return BedrockRuntimeClient.builder()
+                .region(secondaryRegion.map(Region::of).orElse(Region.US_EAST_2))
+                .overrideConfiguration(ClientOverrideConfiguration.builder()
+                        .retryPolicy(RetryPolicy.none())
+                        .build())
+                .build();
+    }
+
+    @Produces
+    @ApplicationScoped
+    public BedrockRuntimeAsyncClient bedrockRuntimeAsyncClient() {
+        return BedrockRuntimeAsyncClient.builder()
+                .region(Region.US_EAST_2)
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder())
                 .build();
     }
 
@@ -24,4 +60,21 @@ public class AwsClientProducers {
                 .build();
     }
 
+    @Produces
+    @ApplicationScoped
+    public LambdaClient lambdaClient() {
+        return LambdaClient.builder()
+                .httpClient(UrlConnectionHttpClient.builder()
+                        .connectionTimeout(Duration.ofSeconds(10))      // TCP connect
+                        .socketTimeout(Duration.ofMinutes(5))           // wait for data
+                        .build())
+                .region(Region.US_EAST_2)
+                .overrideConfiguration(ClientOverrideConfiguration.builder()
+                        .apiCallTimeout(Duration.ofMinutes(6)) // Total API call timeout
+                        .apiCallAttemptTimeout(Duration.ofMinutes(6)) // Timeout for individual attempts
+                        .build())
+                .credentialsProvider(DefaultCredentialsProvider.create())
+                .build();
+    }
+
 }
@@ -2,6 +2,7 @@ package com.andersonalexdurante.configuration;
 
 import com.andersonalexdurante.interfaces.IDollarService;
 import com.andersonalexdurante.services.AwesomeApiDollarService;
+import com.andersonalexdurante.services.HedgedDollarService;
 import com.andersonalexdurante.services.WiseApiDollarService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -21,12 +22,18 @@ public class DollarServiceProducer {
     @Inject
     WiseApiDollarService wiseApiDollarService;
 
+    @Inject
+    HedgedDollarService hedgedDollarService;
+
     @Produces
     @Named("dollarService")
     public IDollarService getDollarService() {
         if ("WISE".equalsIgnoreCase(this.dollarServiceType)) {
             return this.wiseApiDollarService;
         }
+        if ("HEDGED".equalsIgnoreCase(this.dollarServiceType)) {
+            return this.hedgedDollarService;
+        }
         return this.awesomeApiDollarService;
     }
 }
\ No newline at end of file
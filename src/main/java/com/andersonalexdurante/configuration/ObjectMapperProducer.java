@@ -0,0 +1,16 @@
+package com.andersonalexdurante.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+@ApplicationScoped
+public class ObjectMapperProducer {
+
+    @Produces
+    @Singleton
+    public ObjectMapper objectMapper() {
+        return new ObjectMapper();
+    }
+}
@@ -0,0 +1,18 @@
+package com.andersonalexdurante.configuration;
+
+import jakarta.inject.Qualifier;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the AWS clients bound to {@code BEDROCK_SECONDARY_REGION}, used when a call is hedged or falls back
+ * away from the primary region.
+ */
+@Qualifier
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.FIELD, ElementType.PARAMETER, ElementType.TYPE})
+public @interface SecondaryRegion {
+}
@@ -0,0 +1,13 @@
+package com.andersonalexdurante.dto;
+
+/**
+ * One publishing target for the USD-BRL rate: the Instagram account it posts to and where its posts (DynamoDB
+ * partition) and renders (S3 prefix) are kept.
+ */
+public record Channel(String id, String instagramUserId, String accessTokenParameter,
+                      String postsContextId, String rendersPrefix) {
+
+    public String checkpointKey(DollarRate dollarRate) {
+        return this.postsContextId + "#" + dollarRate;
+    }
+}
@@ -0,0 +1,10 @@
+package com.andersonalexdurante.dto;
+
+import java.util.List;
+
+public record CondensedDescriptions(List<String> descriptions, int originalTokens, int condensedTokens) {
+
+    public int savedTokens() {
+        return this.originalTokens - this.condensedTokens;
+    }
+}
@@ -0,0 +1,156 @@
+package com.andersonalexdurante.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Exchange rate stored as a fixed-point number of ten-thousandths, together with the number of decimals
+ * the provider quotes (which also decides the Pokedex number). Parsing works directly on characters, so no
+ * intermediate strings or floating-point values are created.
+ */
+public record DollarRate(long tenThousandths, int decimals) implements Comparable<DollarRate> {
+
+    public static final int MAX_DECIMALS = 4;
+    public static final DollarRate ZERO = new DollarRate(0, 2);
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000};
+
+    public DollarRate {
+        if (tenThousandths < 0) {
+            throw new IllegalArgumentException("Dollar rate cannot be negative: " + tenThousandths);
+        }
+        if (decimals < 0 || decimals > MAX_DECIMALS) {
+            throw new IllegalArgumentException("Unsupported number of decimals: " + decimals);
+        }
+    }
+
+    public static DollarRate parse(CharSequence text) {
+        return parse(text, -1);
+    }
+
+    public static DollarRate parse(CharSequence text, int decimals) {
+        long integerPart = 0;
+        long fraction = 0;
+        int fractionDigits = 0;
+        boolean separatorSeen = false;
+        boolean digitSeen = false;
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digitSeen = true;
+                if (!separatorSeen) {
+                    integerPart = integerPart * 10 + (c - '0');
+                } else if (fractionDigits < MAX_DECIMALS) {
+                    fraction = fraction * 10 + (c - '0');
+                    fractionDigits++;
+                }
+            } else if ((c == '.' || c == ',') && !separatorSeen) {
+                separatorSeen = true;
+            } else {
+                throw new IllegalArgumentException("Invalid dollar rate: " + text);
+            }
+        }
+        if (!digitSeen) {
+            throw new IllegalArgumentException("Invalid dollar rate: " + text);
+        }
+        return of(integerPart, fraction, fractionDigits, decimals);
+    }
+
+    /**
+     * Same as {@link #parse(CharSequence, int)}, reading the array in place (a {@code CharBuffer} view would be
+     * allocated on every call).
+     */
+    public static DollarRate parse(char[] chars, int offset, int length, int decimals) {
+        long integerPart = 0;
+        long fraction = 0;
+        int fractionDigits = 0;
+        boolean separatorSeen = false;
+        boolean digitSeen = false;
+
+        for (int i = offset; i < offset + length; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                digitSeen = true;
+                if (!separatorSeen) {
+                    integerPart = integerPart * 10 + (c - '0');
+                } else if (fractionDigits < MAX_DECIMALS) {
+                    fraction = fraction * 10 + (c - '0');
+                    fractionDigits++;
+                }
+            } else if ((c == '.' || c == ',') && !separatorSeen) {
+                separatorSeen = true;
+            } else {
+                throw new IllegalArgumentException("Invalid dollar rate: " + new String(chars, offset, length));
+            }
+        }
+        if (!digitSeen) {
+            throw new IllegalArgumentException("Invalid dollar rate: " + new String(chars, offset, length));
+        }
+        return of(integerPart, fraction, fractionDigits, decimals);
+    }
+
+    private static DollarRate of(long integerPart, long fraction, int fractionDigits, int decimals) {
+        int quotedDecimals = decimals < 0 ? fractionDigits : decimals;
+        long value = integerPart * POWERS_OF_TEN[MAX_DECIMALS] + fraction * POWERS_OF_TEN[MAX_DECIMALS - fractionDigits];
+        return new DollarRate(truncate(value, quotedDecimals), quotedDecimals);
+    }
+
+    public DollarRate withDecimals(int newDecimals) {
+        return new DollarRate(truncate(this.tenThousandths, newDecimals), newDecimals);
+    }
+
+    public long stepSize() {
+        return POWERS_OF_TEN[MAX_DECIMALS - this.decimals];
+    }
+
+    public DollarRate plusSteps(int steps) {
+        return new DollarRate(this.tenThousandths + steps * this.stepSize(), this.decimals);
+    }
+
+    public int pokedexNumber() {
+        return (int) ((this.tenThousandths % POWERS_OF_TEN[MAX_DECIMALS])
+                / POWERS_OF_TEN[MAX_DECIMALS - this.decimals]);
+    }
+
+    public int pokedexSize() {
+        return (int) POWERS_OF_TEN[this.decimals];
+    }
+
+    public boolean isSameRate(DollarRate other) {
+        return this.tenThousandths == other.tenThousandths;
+    }
+
+    public BigDecimal variationInCents(DollarRate previous) {
+        long difference = Math.abs(this.tenThousandths - previous.tenThousandths);
+        // ten-thousandths of a real are hundredths of a cent; keep one decimal rounding half up
+        return BigDecimal.valueOf((difference + 5) / 10, 1);
+    }
+
+    public String format(int formatDecimals) {
+        long value = truncate(this.tenThousandths, formatDecimals);
+        StringBuilder builder = new StringBuilder(8).append(value / POWERS_OF_TEN[MAX_DECIMALS]);
+        if (formatDecimals > 0) {
+            long fraction = (value % POWERS_OF_TEN[MAX_DECIMALS]) / POWERS_OF_TEN[MAX_DECIMALS - formatDecimals];
+            builder.append(',');
+            for (long power = POWERS_OF_TEN[formatDecimals - 1]; power > 1 && fraction < power; power /= 10) {
+                builder.append('0');
+            }
+            builder.append(fraction);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public int compareTo(DollarRate other) {
+        return Long.compare(this.tenThousandths, other.tenThousandths);
+    }
+
+    @Override
+    public String toString() {
+        return this.format(this.decimals);
+    }
+
+    private static long truncate(long value, int decimals) {
+        long unit = POWERS_OF_TEN[MAX_DECIMALS - decimals];
+        return value - value % unit;
+    }
+}
@@ -0,0 +1,6 @@
+package com.andersonalexdurante.dto;
+
+public record HttpHostStats(String host, long requests, long failures, long clientErrors, long serverErrors,
+                            long bytesReceived, long totalLatencyMillis, int inFlight, long rejected,
+                            String circuit) {
+}
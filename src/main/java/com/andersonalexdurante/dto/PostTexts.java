@@ -0,0 +1,7 @@
+package com.andersonalexdurante.dto;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+@RegisterForReflection
+public record PostTexts(String backgroundDescription, String caption) {
+}
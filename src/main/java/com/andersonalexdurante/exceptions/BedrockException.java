@@ -0,0 +1,12 @@
+package com.andersonalexdurante.exceptions;
+
+public class BedrockException extends RuntimeException {
+
+    public BedrockException(String msg, Throwable cause) {
+        super(msg, cause);
+    }
+
+    public BedrockException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,18 @@
+package com.andersonalexdurante.exceptions;
+
+import java.io.IOException;
+import java.time.Instant;
+
+public class CircuitOpenException extends IOException {
+
+    private final Instant retryAt;
+
+    public CircuitOpenException(String msg, Instant retryAt) {
+        super(msg);
+        this.retryAt = retryAt;
+    }
+
+    public Instant getRetryAt() {
+        return this.retryAt;
+    }
+}
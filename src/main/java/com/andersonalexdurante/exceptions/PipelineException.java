@@ -0,0 +1,12 @@
+package com.andersonalexdurante.exceptions;
+
+public class PipelineException extends RuntimeException {
+
+    public PipelineException(String msg, Throwable cause) {
+        super(msg, cause);
+    }
+
+    public PipelineException(String msg) {
+        super(msg);
+    }
+}
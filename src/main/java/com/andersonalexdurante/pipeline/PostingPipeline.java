@@ -0,0 +1,307 @@
+package com.andersonalexdurante.pipeline;
+
+import com.andersonalexdurante.dto.Channel;
+import com.andersonalexdurante.dto.DollarRate;
+import com.andersonalexdurante.dto.DollarVariationDTO;
+import com.andersonalexdurante.dto.PokemonDTO;
+import com.andersonalexdurante.dto.PostTexts;
+import com.andersonalexdurante.exceptions.PipelineException;
+import com.andersonalexdurante.interfaces.IDollarService;
+import com.andersonalexdurante.services.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.net.URL;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+@ApplicationScoped
+public class PostingPipeline {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostingPipeline.class);
+
+    @Inject
+    @Named("dollarService")
+    IDollarService dollarService;
+    @Inject
+    ChannelService channelService;
+    @Inject
+    PokemonService pokemonService;
+    @Inject
+    DynamoDBService dynamoDBService;
+    @Inject
+    S3Service s3Service;
+    @Inject
+    VideoService videoService;
+    @Inject
+    BedrockService bedrockService;
+    @Inject
+    InstagramService instagramService;
+    @Inject
+    PrerenderService prerenderService;
+    @Inject
+    MetricsService metricsService;
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "CHECKPOINT_ENABLED", defaultValue = "true")
+    boolean checkpointEnabled;
+
+    public void publish(String requestId, Instant deadline) {
+        List<Channel> channels = this.channelService.getChannels();
+        StageGraph rateGraph = new StageGraph(requestId, this.metricsService.stageListener(requestId));
+        Map<String, Stage<Optional<DollarRate>>> lastRateStages = new HashMap<>();
+        // lookups do not fail the graph: a failed last rate only skips its channel
+        Map<String, RuntimeException> lookupFailures = new ConcurrentHashMap<>();
+        Stage<DollarRate> rateStage = isolatedStage(requestId, rateGraph, "rate", lookupFailures,
+                () -> this.dollarService.getDollarExchangeRate(requestId));
+        for (Channel channel : channels) {
+            lastRateStages.put(channel.id(), isolatedStage(requestId, rateGraph, "last-rate:" + channel.id(),
+                    lookupFailures,
+                    () -> this.dynamoDBService.getLastDollarRate(requestId, channel.postsContextId())));
+        }
+        StageResults rateResults = rateGraph.run();
+
+        List<Runnable> posts = new ArrayList<>();
+        List<RuntimeException> failures = new ArrayList<>();
+        for (Channel channel : channels) {
+            RuntimeException lookupFailure = Optional.ofNullable(lookupFailures.get("rate"))
+                    .orElseGet(() -> lookupFailures.get("last-rate:" + channel.id()));
+            if (lookupFailure != null) {
+                LOGGER.error("[{}] [ERROR] Skipping {}, its rate lookup failed. - {}", requestId, channel.id(),
+                        lookupFailure.getMessage());
+                failures.add(new PipelineException("Rate lookup for channel " + channel.id() + " failed.",
+                        lookupFailure));
+                continue;
+            }
+
+            DollarRate exchangeRate = rateResults.get(rateStage);
+            Optional<DollarRate> lastRate = rateResults.get(lastRateStages.get(channel.id()));
+            if (!this.dollarService.dollarRateChanged(lastRate, exchangeRate)) {
+                LOGGER.info("[{}] Dollar rate {} dont changed on {}! Skipping", requestId, exchangeRate,
+                        channel.id());
+                this.metricsService.increment(requestId, "skip.rate-unchanged");
+                continue;
+            }
+            posts.add(() -> this.publish(requestId, channel, exchangeRate, lastRate, deadline));
+        }
+
+        this.runConcurrently(requestId, posts, failures, channels.size());
+    }
+
+    /**
+     * Publishes a rate observed outside the scheduled run on every channel whose last posted rate (keyed by
+     * channel id) differs from it, calling {@code onPublished} for each channel that posted.
+     */
+    public void publish(String requestId, DollarRate dollarExchangeRate,
+                        Map<String, Optional<DollarRate>> lastDollarRates, Instant deadline,
+                        Consumer<Channel> onPublished) {
+        List<Channel> channels = this.channelService.getChannels();
+        List<Runnable> posts = new ArrayList<>();
+        for (Channel channel : channels) {
+            Optional<DollarRate> lastRate = lastDollarRates.getOrDefault(channel.id(), Optional.empty());
+            if (!this.dollarService.dollarRateChanged(lastRate, dollarExchangeRate)) {
+                LOGGER.info("[{}] Dollar rate {} dont changed on {}! Skipping", requestId, dollarExchangeRate,
+                        channel.id());
+                this.metricsService.increment(requestId, "skip.rate-unchanged");
+                continue;
+            }
+            posts.add(() -> {
+                this.publish(requestId, channel, dollarExchangeRate, lastRate, deadline);
+                onPublished.accept(channel);
+            });
+        }
+
+        this.runConcurrently(requestId, posts, new ArrayList<>(), channels.size());
+    }
+
+    public void publish(String requestId, Channel channel, DollarRate dollarExchangeRate,
+                        Optional<DollarRate> lastDollarRate, Instant deadline) {
+        LOGGER.info("[{}] Publishing dollar rate {} on {}", requestId, dollarExchangeRate, channel.id());
+        int pokedexNumber = this.pokemonService.getPokedexNumber(dollarExchangeRate);
+        RunCheckpoint checkpoint = RunCheckpoint.load(requestId, channel, dollarExchangeRate, lastDollarRate,
+                this.dynamoDBService, this.objectMapper, this.checkpointEnabled);
+
+        StageGraph postGraph = new StageGraph(requestId, this.metricsService.stageListener(requestId));
+        Stage<PokemonDTO> pokemonStage = postGraph.stage("pokemon", results -> {
+            LOGGER.info("[{}] Fetching Pokemon data for Pokedex #{}", requestId, pokedexNumber);
+            return checkpoint.resume(RunCheckpoint.POKEMON, PokemonDTO.class,
+                    () -> this.pokemonService.getPokemonData(requestId, pokedexNumber));
+        });
+
+        Stage<DollarVariationDTO> variationStage = postGraph.stage("dollar-variation", results -> {
+            LOGGER.info("[{}] Analyzing whether the price of the dollar rose or fell", requestId);
+            return this.dollarService.getDollarVariation(requestId, lastDollarRate.orElse(DollarRate.ZERO),
+                    dollarExchangeRate);
+        });
+
+        Stage<String> backgroundStage;
+        Stage<String> captionStage;
+        if (this.bedrockService.isCombinedPromptEnabled()) {
+            // one Bedrock call answers both texts; the video then also waits for the dollar variation
+            Stage<PostTexts> postTextsStage = postGraph.stage("post-texts", results -> {
+                LOGGER.info("[{}] Generating background description and caption with AWS Bedrock", requestId);
+                return checkpoint.resume(RunCheckpoint.POST_TEXTS, PostTexts.class,
+                        () -> this.bedrockService.generatePostTexts(requestId, results.get(pokemonStage),
+                                results.get(variationStage), dollarExchangeRate));
+            }, pokemonStage, variationStage);
+            backgroundStage = postGraph.stage("background-description",
+                    results -> results.get(postTextsStage).backgroundDescription(), postTextsStage);
+            captionStage = postGraph.stage("caption", results -> {
+                String caption = results.get(postTextsStage).caption();
+                this.metricsService.gauge(requestId, "payload.caption", caption.length(), MetricsService.COUNT);
+                return caption;
+            }, postTextsStage);
+        } else {
+            backgroundStage = postGraph.stage("background-description", results -> {
+                LOGGER.info("[{}] Generating image background description with AWS Bedrock", requestId);
+                return checkpoint.resume(RunCheckpoint.BACKGROUND_DESCRIPTION,
+                        () -> this.bedrockService.generateImageBackgroundDescription(requestId,
+                                results.get(pokemonStage)));
+            }, pokemonStage);
+            captionStage = postGraph.stage("caption", results -> {
+                LOGGER.info("[{}] Generating post caption with AWS Bedrock", requestId);
+                String caption = checkpoint.resume(RunCheckpoint.CAPTION,
+                        () -> this.bedrockService.generateCaption(requestId, results.get(pokemonStage),
+                                results.get(variationStage), dollarExchangeRate));
+                this.metricsService.gauge(requestId, "payload.caption", caption.length(), MetricsService.COUNT);
+                return caption;
+            }, pokemonStage, variationStage);
+        }
+
+        Stage<String> videoStage = postGraph.stage("video", results -> {
+            LOGGER.info("[{}] Starting video generation", requestId);
+            return checkpoint.resume(RunCheckpoint.VIDEO_KEY,
+                    videoKey -> this.s3Service.postVideoExists(requestId, videoKey),
+                    () -> this.videoService.generatePostVideo(requestId, channel, dollarExchangeRate,
+                            results.get(variationStage).isUp(), results.get(pokemonStage),
+                            results.get(backgroundStage)));
+        }, pokemonStage, variationStage, backgroundStage);
+
+        Stage<URL> videoUrlStage = postGraph.stage("video-url", results -> {
+            LOGGER.info("[{}] Getting post video URL from S3", requestId);
+            return this.s3Service.getPostVideoUrl(requestId, results.get(videoStage));
+        }, videoStage);
+
+        Stage<String> containerStage = postGraph.stage("instagram-container", results -> {
+            LOGGER.info("[{}] Creating Instagram media container", requestId);
+            return checkpoint.resume(RunCheckpoint.MEDIA_CONTAINER_ID,
+                    containerId -> this.instagramService.isContainerReusable(requestId, channel, containerId),
+                    () -> this.instagramService.createContainer(requestId, channel, pokedexNumber,
+                            results.get(videoUrlStage), results.get(captionStage)));
+        }, videoUrlStage, captionStage);
+
+        Stage<String> instagramStage = postGraph.stage("instagram-post", results -> {
+            LOGGER.info("[{}] Posting video to Instagram", requestId);
+            return checkpoint.resume(RunCheckpoint.PUBLISHED_MEDIA_ID,
+                    () -> this.instagramService.publishWhenReady(requestId, channel, results.get(containerStage),
+                            deadline));
+        }, containerStage);
+
+        postGraph.stage("save-post", results -> {
+            LOGGER.info("[{}] Saving new post in DynamoDB", requestId);
+            if (this.dynamoDBService.savePost(requestId, channel.postsContextId(), results.get(pokemonStage).name(),
+                    dollarExchangeRate, results.get(captionStage))) {
+                checkpoint.delete();
+            }
+            return null;
+        }, instagramStage, pokemonStage, captionStage);
+
+        postGraph.run();
+
+        if (this.prerenderService.isEnabled()) {
+            this.prerenderService.schedulePrerender(requestId, channel, dollarExchangeRate, deadline);
+        }
+    }
+
+
+    private <T> Stage<T> isolatedStage(String requestId, StageGraph graph, String name,
+                                       Map<String, RuntimeException> failures, Supplier<T> lookup) {
+        return graph.stage(name, results -> {
+            try {
+                return lookup.get();
+            } catch (RuntimeException e) {
+                this.metricsService.increment(requestId, "failure." + name);
+                failures.put(name, e);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Runs each channel's post on its own virtual thread, so one account waiting on Instagram does not hold the
+     * others back. Every post runs to the end; the first failure (including those of channels skipped before)
+     * is rethrown with the rest suppressed.
+     */
+    private void runConcurrently(String requestId, List<Runnable> posts, List<RuntimeException> failures,
+                                 int channelCount) {
+        if (posts.size() <= 1) {
+            for (Runnable post : posts) {
+                try {
+                    post.run();
+                } catch (RuntimeException e) {
+                    failures.add(e);
+                }
+            }
+            throwFailures(requestId, failures, channelCount);
+            return;
+        }
+
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Runnable post : posts) {
+                futures.add(executor.submit(() -> {
+                    if (mdc != null) {
+                        MDC.setContextMap(mdc);
+                    }
+                    try {
+                        post.run();
+                    } finally {
+                        MDC.clear();
+                    }
+                }));
+            }
+        }
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                failures.add(e.getCause() instanceof RuntimeException runtimeException
+                        ? runtimeException : new PipelineException("Channel post failed.", e.getCause()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PipelineException("Channel posts interrupted.", e);
+            }
+        }
+        throwFailures(requestId, failures, channelCount);
+    }
+
+    private static void throwFailures(String requestId, List<RuntimeException> failures, int channelCount) {
+        if (failures.isEmpty()) {
+            return;
+        }
+        RuntimeException failure = failures.getFirst();
+        failures.stream().skip(1).forEach(failure::addSuppressed);
+        LOGGER.error("[{}] {} of {} channels failed", requestId, failures.size(), channelCount);
+        throw failure;
+    }
+}
@@ -0,0 +1,129 @@
+package com.andersonalexdurante.pipeline;
+
+import com.andersonalexdurante.dto.Channel;
+import com.andersonalexdurante.dto.DollarRate;
+import com.andersonalexdurante.services.DynamoDBService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Stage outputs of the post being published for a rate on a channel, persisted as soon as each stage completes.
+ * A later run for the same channel and rate (and the same previous rate, so the caption and direction still hold)
+ * starts from them instead of redoing the work. The record is deleted once the post is saved.
+ */
+public final class RunCheckpoint {
+
+    public static final String POKEMON = "pokemon";
+    public static final String BACKGROUND_DESCRIPTION = "background_description";
+    public static final String VIDEO_KEY = "video_key";
+    public static final String CAPTION = "caption";
+    public static final String POST_TEXTS = "post_texts";
+    public static final String MEDIA_CONTAINER_ID = "media_container_id";
+    public static final String PUBLISHED_MEDIA_ID = "published_media_id";
+    private static final String PREVIOUS_RATE = "previous_rate";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RunCheckpoint.class);
+
+    private final String requestId;
+    private final String checkpointKey;
+    private final DynamoDBService dynamoDBService;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+
+    private RunCheckpoint(String requestId, String checkpointKey, DynamoDBService dynamoDBService,
+                          ObjectMapper objectMapper, boolean enabled) {
+        this.requestId = requestId;
+        this.checkpointKey = checkpointKey;
+        this.dynamoDBService = dynamoDBService;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    public static RunCheckpoint load(String requestId, Channel channel, DollarRate dollarRate,
+                                     Optional<DollarRate> previousRate, DynamoDBService dynamoDBService,
+                                     ObjectMapper objectMapper, boolean enabled) {
+        String checkpointKey = channel.checkpointKey(dollarRate);
+        RunCheckpoint checkpoint = new RunCheckpoint(requestId, checkpointKey, dynamoDBService, objectMapper,
+                enabled);
+        if (!enabled) {
+            return checkpoint;
+        }
+
+        String previous = previousRate.map(DollarRate::toString).orElse("none");
+        Map<String, String> stored = dynamoDBService.getCheckpoint(requestId, checkpointKey);
+        if (!stored.isEmpty() && previous.equals(stored.get(PREVIOUS_RATE))) {
+            checkpoint.values.putAll(stored);
+            LOGGER.info("[{}] Resuming post {} from checkpoint", requestId, checkpointKey);
+        } else {
+            if (!stored.isEmpty()) {
+                LOGGER.info("[{}] Discarding checkpoint {} written against previous rate {}", requestId,
+                        checkpointKey, stored.get(PREVIOUS_RATE));
+                dynamoDBService.deleteCheckpoint(requestId, checkpointKey);
+            }
+            checkpoint.save(PREVIOUS_RATE, previous);
+        }
+        return checkpoint;
+    }
+
+    public String resume(String name, Supplier<String> action) {
+        return this.resume(name, value -> true, action);
+    }
+
+    public String resume(String name, Predicate<String> stillValid, Supplier<String> action) {
+        String stored = this.values.get(name);
+        if (stored != null) {
+            if (stillValid.test(stored)) {
+                LOGGER.info("[{}] Reusing checkpointed {}", this.requestId, name);
+                return stored;
+            }
+            LOGGER.info("[{}] Checkpointed {} is no longer valid", this.requestId, name);
+        }
+
+        String value = action.get();
+        this.save(name, value);
+        return value;
+    }
+
+    public <T> T resume(String name, Class<T> type, Supplier<T> action) {
+        String stored = this.values.get(name);
+        if (stored != null) {
+            try {
+                T value = this.objectMapper.readValue(stored, type);
+                LOGGER.info("[{}] Reusing checkpointed {}", this.requestId, name);
+                return value;
+            } catch (JsonProcessingException e) {
+                LOGGER.warn("[{}] Ignoring unreadable checkpointed {}: {}", this.requestId, name, e.getMessage());
+            }
+        }
+
+        T value = action.get();
+        try {
+            this.save(name, this.objectMapper.writeValueAsString(value));
+        } catch (JsonProcessingException e) {
+            LOGGER.warn("[{}] Could not checkpoint {}: {}", this.requestId, name, e.getMessage());
+        }
+        return value;
+    }
+
+    public void delete() {
+        if (this.enabled) {
+            this.dynamoDBService.deleteCheckpoint(this.requestId, this.checkpointKey);
+        }
+    }
+
+    private void save(String name, String value) {
+        this.values.put(name, value);
+        if (this.enabled) {
+            this.dynamoDBService.saveCheckpointValue(this.requestId, this.checkpointKey, name, value);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.andersonalexdurante.pipeline;
+
+import java.util.List;
+import java.util.function.Function;
+
+public final class Stage<T> {
+
+    private final String name;
+    private final Function<StageResults, T> action;
+    private final List<Stage<?>> dependencies;
+
+    Stage(String name, Function<StageResults, T> action, List<Stage<?>> dependencies) {
+        this.name = name;
+        this.action = action;
+        this.dependencies = dependencies;
+    }
+
+    public String name() {
+        return this.name;
+    }
+
+    public List<Stage<?>> dependencies() {
+        return this.dependencies;
+    }
+
+    T execute(StageResults results) {
+        return this.action.apply(results);
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+}
@@ -0,0 +1,137 @@
+package com.andersonalexdurante.pipeline;
+
+import com.andersonalexdurante.exceptions.PipelineException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a set of dependent stages on virtual threads. Each stage starts as soon as all of its dependencies
+ * completed; the first failure cancels (interrupts) every other stage and is rethrown by {@link #run()}.
+ */
+public class StageGraph {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StageGraph.class);
+
+    private final String requestId;
+    private final StageListener listener;
+    private final List<Stage<?>> stages = new ArrayList<>();
+
+    public StageGraph(String requestId) {
+        this(requestId, StageListener.NONE);
+    }
+
+    public StageGraph(String requestId, StageListener listener) {
+        this.requestId = requestId;
+        this.listener = listener;
+    }
+
+    public <T> Stage<T> stage(String name, Function<StageResults, T> action, Stage<?>... dependencies) {
+        for (Stage<?> dependency : dependencies) {
+            if (!this.stages.contains(dependency)) {
+                throw new IllegalArgumentException("Dependency " + dependency + " of stage " + name
+                        + " does not belong to this graph");
+            }
+        }
+        Stage<T> stage = new Stage<>(name, action, List.of(dependencies));
+        this.stages.add(stage);
+        return stage;
+    }
+
+    public StageResults run() {
+        StageResults results = new StageResults(this.stages);
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+
+        // not try-with-resources: close() would wait for the cancelled stages to finish
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            CompletionService<Stage<?>> completion = new ExecutorCompletionService<>(executor);
+            for (Stage<?> stage : this.stages) {
+                completion.submit(() -> this.execute(stage, results, mdc));
+            }
+
+            try {
+                for (int completed = 0; completed < this.stages.size(); completed++) {
+                    completion.take().get();
+                }
+            } catch (ExecutionException e) {
+                Throwable failure = results.firstFailure() != null ? results.firstFailure() : e.getCause();
+                LOGGER.error("[{}] Pipeline aborted, remaining stages cancelled", this.requestId);
+                if (failure instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new PipelineException("Pipeline stage failed.", failure);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PipelineException("Pipeline interrupted.", e);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        this.logCriticalPath(results);
+        return results;
+    }
+
+    private Stage<?> execute(Stage<?> stage, StageResults results, Map<String, String> mdc) throws Exception {
+        if (mdc != null) {
+            MDC.setContextMap(mdc);
+        }
+        try {
+            for (Stage<?> dependency : stage.dependencies()) {
+                results.await(dependency);
+            }
+
+            long start = System.nanoTime();
+            try {
+                Object value = stage.execute(results);
+                results.complete(stage, value, start, System.nanoTime());
+            } catch (RuntimeException e) {
+                results.fail(stage, e);
+                if (results.firstFailure() == e) {
+                    this.listener.onStageFinished(stage, Duration.ofNanos(System.nanoTime() - start), e);
+                }
+                throw e;
+            }
+            this.listener.onStageFinished(stage, results.duration(stage), null);
+            LOGGER.debug("[{}] Stage {} finished in {} ms", this.requestId, stage,
+                    results.duration(stage).toMillis());
+            return stage;
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private void logCriticalPath(StageResults results) {
+        if (this.stages.isEmpty()) {
+            return;
+        }
+
+        Comparator<Stage<?>> byEnd = Comparator.comparingLong(results::endNanos);
+        LinkedList<Stage<?>> path = new LinkedList<>();
+        Stage<?> current = this.stages.stream().max(byEnd).orElseThrow();
+        while (current != null) {
+            path.addFirst(current);
+            current = current.dependencies().stream().max(byEnd).orElse(null);
+        }
+
+        long totalMillis = Duration.ofNanos(results.endNanos(path.getLast()) - results.startNanos()).toMillis();
+        LOGGER.info("[{}] Critical path ({} ms): {}", this.requestId, totalMillis, path.stream()
+                .map(stage -> stage.name() + " " + results.duration(stage).toMillis() + " ms")
+                .collect(Collectors.joining(" -> ")));
+    }
+}
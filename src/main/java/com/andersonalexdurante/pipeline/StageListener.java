@@ -0,0 +1,16 @@
+package com.andersonalexdurante.pipeline;
+
+import java.time.Duration;
+
+@FunctionalInterface
+public interface StageListener {
+
+    StageListener NONE = (stage, duration, failure) -> {
+    };
+
+    /**
+     * Called once per stage that ran to completion or that caused the pipeline to abort ({@code failure} is
+     * then not null). Stages cancelled because another one failed are not reported.
+     */
+    void onStageFinished(Stage<?> stage, Duration duration, Throwable failure);
+}
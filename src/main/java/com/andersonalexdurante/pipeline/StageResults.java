@@ -0,0 +1,61 @@
+package com.andersonalexdurante.pipeline;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+public final class StageResults {
+
+    private final Map<Stage<?>, CompletableFuture<Object>> outputs = new ConcurrentHashMap<>();
+    private final Map<Stage<?>, long[]> timings = new ConcurrentHashMap<>();
+    private final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+    private final long startNanos = System.nanoTime();
+
+    StageResults(Iterable<Stage<?>> stages) {
+        stages.forEach(stage -> this.outputs.put(stage, new CompletableFuture<>()));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Stage<T> stage) {
+        CompletableFuture<Object> output = this.outputs.get(stage);
+        if (output == null || !output.isDone() || output.isCompletedExceptionally()) {
+            throw new IllegalStateException("Stage " + stage + " has not completed");
+        }
+        return (T) output.join();
+    }
+
+    public Duration duration(Stage<?> stage) {
+        long[] timing = this.timings.get(stage);
+        return timing == null ? Duration.ZERO : Duration.ofNanos(timing[1] - timing[0]);
+    }
+
+    void await(Stage<?> stage) throws InterruptedException, ExecutionException {
+        this.outputs.get(stage).get();
+    }
+
+    void complete(Stage<?> stage, Object value, long startNanos, long endNanos) {
+        this.timings.put(stage, new long[]{startNanos, endNanos});
+        this.outputs.get(stage).complete(value);
+    }
+
+    void fail(Stage<?> stage, Throwable failure) {
+        this.firstFailure.compareAndSet(null, failure);
+        this.outputs.get(stage).completeExceptionally(failure);
+    }
+
+    Throwable firstFailure() {
+        return this.firstFailure.get();
+    }
+
+    long endNanos(Stage<?> stage) {
+        long[] timing = this.timings.get(stage);
+        return timing == null ? this.startNanos : timing[1];
+    }
+
+    long startNanos() {
+        return this.startNanos;
+    }
+}
@@ -0,0 +1,64 @@
+package com.andersonalexdurante.resources;
+
+import com.andersonalexdurante.dto.DollarRate;
+import com.andersonalexdurante.services.RateWatchService;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Optional;
+
+/**
+ * Receives pushed rates for the rate watch. Every call must carry the shared secret configured in
+ * {@code RATE_FEED_SECRET}; without it configured the endpoint rejects everything. Pushed rates are truncated
+ * to the decimals of the configured dollar provider, so they map to the same Pokemon as a polled rate.
+ */
+@Path("/rate-feed")
+public class RateFeedResource {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RateFeedResource.class);
+    static final String SECRET_HEADER = "X-Rate-Feed-Secret";
+
+    @ConfigProperty(name = "RATE_FEED_SECRET")
+    Optional<String> rateFeedSecret;
+
+    @Inject
+    RateWatchService rateWatchService;
+
+    @POST
+    @Consumes(MediaType.TEXT_PLAIN)
+    public Response receiveRate(@HeaderParam(SECRET_HEADER) String secret, String dollarExchangeRate) {
+        if (!this.isAuthorized(secret)) {
+            LOGGER.warn("Rejected rate feed call without a valid {} header", SECRET_HEADER);
+            return Response.status(Response.Status.FORBIDDEN).build();
+        }
+        if (!this.rateWatchService.isEnabled()) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE).build();
+        }
+        if (dollarExchangeRate == null || !dollarExchangeRate.trim().matches("\\d+[,.]\\d+")) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+
+        this.rateWatchService.onRate("feed", DollarRate.parse(dollarExchangeRate.trim(),
+                this.rateWatchService.getRateDecimals()));
+        return Response.accepted().build();
+    }
+
+    private boolean isAuthorized(String secret) {
+        if (this.rateFeedSecret.isEmpty() || this.rateFeedSecret.get().isBlank() || secret == null) {
+            return false;
+        }
+        // constant-time comparison, so the secret cannot be guessed from response times
+        return MessageDigest.isEqual(this.rateFeedSecret.get().getBytes(StandardCharsets.UTF_8),
+                secret.getBytes(StandardCharsets.UTF_8));
+    }
+}
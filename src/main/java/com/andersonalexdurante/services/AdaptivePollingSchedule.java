@@ -0,0 +1,54 @@
+package com.andersonalexdurante.services;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Delay schedule for status polling. Without history it starts with short intervals and backs off
+ * exponentially with jitter. Once completions were recorded, it waits until shortly before the
+ * expected completion time and only then starts polling with short intervals.
+ */
+public class AdaptivePollingSchedule {
+
+    private static final double JITTER = 0.2;
+    private static final double SMOOTHING = 0.3;
+    private static final double EARLY_POLL_FACTOR = 0.8;
+
+    private final Duration initialDelay;
+    private final Duration maxDelay;
+    private final double multiplier;
+    private double estimatedCompletionMillis;
+
+    public AdaptivePollingSchedule(Duration initialDelay, Duration maxDelay, double multiplier,
+                                   Duration initialEstimate) {
+        this.initialDelay = initialDelay;
+        this.maxDelay = maxDelay;
+        this.multiplier = multiplier;
+        this.estimatedCompletionMillis = initialEstimate.toMillis();
+    }
+
+    public synchronized Duration nextDelay(int attempt, Duration elapsed, Duration remaining) {
+        long expectedWaitMillis = (long) (this.estimatedCompletionMillis * EARLY_POLL_FACTOR) - elapsed.toMillis();
+        long delayMillis;
+        if (expectedWaitMillis > this.initialDelay.toMillis()) {
+            delayMillis = expectedWaitMillis;
+        } else {
+            double backoff = this.initialDelay.toMillis() * Math.pow(this.multiplier, attempt);
+            double jitter = 1 + ThreadLocalRandom.current().nextDouble(-JITTER, JITTER);
+            delayMillis = (long) (backoff * jitter);
+        }
+
+        delayMillis = Math.min(delayMillis, this.maxDelay.toMillis());
+        return Duration.ofMillis(Math.max(0, Math.min(delayMillis, remaining.toMillis())));
+    }
+
+    public synchronized void recordCompletion(Duration elapsed) {
+        this.estimatedCompletionMillis = this.estimatedCompletionMillis <= 0
+                ? elapsed.toMillis()
+                : SMOOTHING * elapsed.toMillis() + (1 - SMOOTHING) * this.estimatedCompletionMillis;
+    }
+
+    public synchronized Duration estimatedCompletion() {
+        return Duration.ofMillis((long) this.estimatedCompletionMillis);
+    }
+}
@@ -1,30 +1,53 @@
 package com.andersonalexdurante.services;
 
+import com.andersonalexdurante.dto.DollarRate;
 import com.andersonalexdurante.exceptions.DollarException;
 import com.andersonalexdurante.interfaces.IDollarService;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 @ApplicationScoped
 public class AwesomeApiDollarService implements IDollarService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AwesomeApiDollarService.class);
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int RATE_DECIMALS = 2;
+    @Inject
+    ObjectMapper objectMapper;
 
     @ConfigProperty(name = "AWESOMEAPI_DOLLAR_URL")
     String dollarApiUrl;
 
+    @ConfigProperty(name = "AWESOMEAPI_DAILY_DOLLAR_URL",
+            defaultValue = "https://economia.awesomeapi.com.br/json/daily/USD-BRL/365")
+    String dailyDollarApiUrl;
+
+    @Inject
+    OutboundHttpClient outboundHttpClient;
+
+    @Override
+    public int getRateDecimals() {
+        return RATE_DECIMALS;
+    }
+
     @Override
-    public String getDollarExchangeRate(String requestId) {
+    public DollarRate getDollarExchangeRate(String requestId) {
         LOGGER.info("[{}] [START] Fetching the dollar exchange rate from AwesomeAPI", requestId);
 
         try {
@@ -33,15 +56,13 @@ public class AwesomeApiDollarService implements IDollarService {
                     .GET()
                     .build();
 
-            HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = this.outboundHttpClient.send(requestId, request);
 
             if (response.statusCode() == 200) {
-                JsonNode rootNode = this.objectMapper.readTree(response.body());
-                String exchangeRate = rootNode.path("USD").path("bid").asText();
-                String formattedBid = exchangeRate.substring(0, 4).replace('.', ',');
+                DollarRate dollarRate = this.readRate(response.body());
 
-                LOGGER.info("[{}] [SUCCESS] AwesomeAPI Dollar exchange rate fetched: BRL ${}", requestId, formattedBid);
-                return formattedBid;
+                LOGGER.info("[{}] [SUCCESS] AwesomeAPI Dollar exchange rate fetched: BRL ${}", requestId, dollarRate);
+                return dollarRate;
             }
 
             LOGGER.warn("[{}] [WARN] Failed to fetch dollar exchange rate. HTTP status: {}", requestId, response.statusCode());
@@ -52,4 +73,55 @@ public class AwesomeApiDollarService implements IDollarService {
             throw new DollarException("Error trying to fetch Dollar Exchange Rate.", e);
         }
     }
+
+    /**
+     * Closing bids of every day between the two dates (inclusive), oldest first.
+     */
+    public List<DollarRate> getDailyDollarExchangeRates(String requestId, LocalDate startDate, LocalDate endDate) {
+        LOGGER.info("[{}] [START] Fetching daily dollar exchange rates from {} to {}", requestId, startDate, endDate);
+
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(this.dailyDollarApiUrl
+                            + "?start_date=" + startDate.format(DateTimeFormatter.BASIC_ISO_DATE)
+                            + "&end_date=" + endDate.format(DateTimeFormatter.BASIC_ISO_DATE)))
+                    .GET()
+                    .build();
+
+            HttpResponse<String> response = this.outboundHttpClient.send(requestId, request);
+            if (response.statusCode() != 200) {
+                throw new DollarException("Failed to fetch daily Dollar Exchange Rates. HTTP status: "
+                        + response.statusCode());
+            }
+
+            List<JsonNode> days = new ArrayList<>();
+            this.objectMapper.readTree(response.body()).forEach(days::add);
+            List<DollarRate> dailyRates = days.stream()
+                    .sorted(Comparator.comparingLong(day -> day.path("timestamp").asLong()))
+                    .map(day -> DollarRate.parse(day.path("bid").asText(), RATE_DECIMALS))
+                    .toList();
+
+            LOGGER.info("[{}] [SUCCESS] {} daily dollar exchange rates fetched", requestId, dailyRates.size());
+            return dailyRates;
+        } catch (DollarException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.error("[{}] [ERROR] Exception while fetching daily Dollar Exchange Rates", requestId, e);
+            throw new DollarException("Error trying to fetch daily Dollar Exchange Rates.", e);
+        }
+    }
+
+    private DollarRate readRate(String responseBody) throws IOException {
+        try (JsonParser parser = this.objectMapper.getFactory().createParser(responseBody)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME && "bid".equals(parser.currentName())) {
+                    parser.nextToken();
+                    return DollarRate.parse(parser.getTextCharacters(), parser.getTextOffset(),
+                            parser.getTextLength(), RATE_DECIMALS);
+                }
+            }
+        }
+        throw new DollarException("Dollar Exchange Rate not found in the response");
+    }
 }
@@ -0,0 +1,261 @@
+package com.andersonalexdurante.services;
+
+import com.andersonalexdurante.dto.Channel;
+import com.andersonalexdurante.dto.DollarRate;
+import com.andersonalexdurante.dto.PokemonDTO;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the render part of the pipeline (Pokemon data, background description, video) for a batch of historical
+ * rates on virtual threads. Bedrock calls go through a token bucket and renders through a Lambda concurrency
+ * limit; completed rates are checkpointed so a job interrupted by the Lambda deadline continues where it
+ * stopped. In dry-run mode nothing is generated, only reported. Renders go to the default channel.
+ */
+@ApplicationScoped
+public class BackfillService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackfillService.class);
+    private static final String PROGRESS_KEY_PREFIX = "backfill#";
+    private static final String PROGRESS_SEPARATOR = ";";
+
+    @ConfigProperty(name = "BACKFILL_CONCURRENCY", defaultValue = "8")
+    int backfillConcurrency;
+
+    @ConfigProperty(name = "BACKFILL_BEDROCK_TPS", defaultValue = "2")
+    double bedrockPermitsPerSecond;
+
+    @ConfigProperty(name = "BACKFILL_LAMBDA_CONCURRENCY", defaultValue = "4")
+    int lambdaConcurrency;
+
+    @ConfigProperty(name = "BACKFILL_PROGRESS_EVERY", defaultValue = "10")
+    int progressEvery;
+
+    @ConfigProperty(name = "BACKFILL_MIN_REMAINING_SECONDS", defaultValue = "360")
+    long minRemainingSeconds;
+
+    @Inject
+    AwesomeApiDollarService awesomeApiDollarService;
+    @Inject
+    PokemonService pokemonService;
+    @Inject
+    BedrockService bedrockService;
+    @Inject
+    VideoService videoService;
+    @Inject
+    S3Service s3Service;
+    @Inject
+    DynamoDBService dynamoDBService;
+    @Inject
+    MetricsService metricsService;
+    @Inject
+    ChannelService channelService;
+
+    public List<DollarRate> resolveRates(String requestId, List<String> rates, Optional<String> startDate,
+                                         Optional<String> endDate) {
+        if (!rates.isEmpty()) {
+            return rates.stream().map(String::trim).filter(rate -> !rate.isEmpty()).map(DollarRate::parse).toList();
+        }
+        if (startDate.isEmpty()) {
+            throw new IllegalArgumentException("Backfill needs either rates or a start_date");
+        }
+        LocalDate start = LocalDate.parse(startDate.get());
+        LocalDate end = endDate.map(LocalDate::parse).orElse(LocalDate.now());
+        return this.awesomeApiDollarService.getDailyDollarExchangeRates(requestId, start, end);
+    }
+
+    public void backfill(String requestId, Optional<String> jobId, List<DollarRate> rates, boolean dryRun,
+                         Instant deadline) {
+        List<BackfillItem> items = toItems(rates);
+        String progressKey = PROGRESS_KEY_PREFIX + jobId.orElseGet(() -> defaultJobId(items));
+        Set<String> completed = ConcurrentHashMap.newKeySet();
+        if (!dryRun) {
+            this.dynamoDBService.getCachedValue(requestId, progressKey)
+                    .ifPresent(progress -> completed.addAll(Arrays.asList(progress.split(PROGRESS_SEPARATOR))));
+        }
+
+        LOGGER.info("[{}] [START] Backfill {} of {} rates ({}), {} already completed. Concurrency: {}, Bedrock: "
+                        + "{}/s, Lambda: {}", requestId, progressKey, items.size(), dryRun ? "dry-run" : "render-only",
+                completed.size(), this.backfillConcurrency, this.bedrockPermitsPerSecond, this.lambdaConcurrency);
+
+        long start = System.nanoTime();
+        Semaphore inFlight = new Semaphore(this.backfillConcurrency);
+        Semaphore lambdaPermits = new Semaphore(this.lambdaConcurrency);
+        TokenBucket bedrockTokens = new TokenBucket(this.bedrockPermitsPerSecond, 1);
+        Map<Outcome, AtomicInteger> outcomes = new ConcurrentHashMap<>();
+        AtomicInteger sinceLastProgress = new AtomicInteger();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (BackfillItem item : items) {
+                if (completed.contains(item.key())) {
+                    count(outcomes, Outcome.ALREADY_COMPLETED);
+                    continue;
+                }
+                if (Duration.between(Instant.now(), deadline).toSeconds() < this.minRemainingSeconds) {
+                    count(outcomes, Outcome.DEFERRED);
+                    continue;
+                }
+
+                inFlight.acquire();
+                executor.submit(() -> {
+                    if (mdc != null) {
+                        MDC.setContextMap(mdc);
+                    }
+                    try {
+                        Outcome outcome = this.process(requestId, item, dryRun, bedrockTokens, lambdaPermits);
+                        count(outcomes, outcome);
+                        if (!dryRun && outcome != Outcome.SKIPPED) {
+                            completed.add(item.key());
+                            if (sinceLastProgress.incrementAndGet() % this.progressEvery == 0) {
+                                this.saveProgress(requestId, progressKey, completed);
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (Exception e) {
+                        count(outcomes, Outcome.FAILED);
+                        this.metricsService.increment(requestId, "failure.backfill");
+                        LOGGER.warn("[{}] Backfill of rate {} failed: {}", requestId, item.rate(), e.getMessage());
+                    } finally {
+                        inFlight.release();
+                        MDC.clear();
+                    }
+                    return null;
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("[{}] Backfill interrupted", requestId);
+        }
+
+        if (!dryRun) {
+            this.saveProgress(requestId, progressKey, completed);
+        }
+        this.report(requestId, progressKey, items.size(), outcomes, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private Outcome process(String requestId, BackfillItem item, boolean dryRun, TokenBucket bedrockTokens,
+                            Semaphore lambdaPermits) throws InterruptedException {
+        Channel channel = this.channelService.getDefaultChannel();
+        int pokedexNumber = item.rate().pokedexNumber();
+        if (pokedexNumber == 0) {
+            LOGGER.info("[{}] Rate {} has no Pokemon, skipping", requestId, item.rate());
+            return Outcome.SKIPPED;
+        }
+
+        PokemonDTO pokemon = this.metricsService.time(requestId, "backfill.pokemon",
+                () -> this.pokemonService.getPokemonData(requestId, pokedexNumber));
+
+        boolean backgroundCached = this.bedrockService.isBackgroundDescriptionCached(requestId, pokedexNumber);
+        if (dryRun && !backgroundCached) {
+            LOGGER.info("[{}] [DRY-RUN] Rate {} would generate a background for {} and render", requestId,
+                    item.rate(), pokemon.name());
+            return Outcome.WOULD_RENDER;
+        }
+        if (!backgroundCached) {
+            bedrockTokens.acquire();
+        }
+        String background = this.metricsService.time(requestId, "backfill.background",
+                () -> this.bedrockService.generateImageBackgroundDescription(requestId, pokemon));
+
+        String videoKey = this.videoService.getPostVideoKey(channel, item.rate(), item.dollarUp(), pokemon, background);
+        if (this.s3Service.postVideoExists(requestId, videoKey)) {
+            return Outcome.CACHED;
+        }
+        if (dryRun) {
+            LOGGER.info("[{}] [DRY-RUN] Rate {} would render {}", requestId, item.rate(), videoKey);
+            return Outcome.WOULD_RENDER;
+        }
+
+        lambdaPermits.acquire();
+        try {
+            this.metricsService.time(requestId, "backfill.render", () -> this.videoService.generatePostVideo(
+                    requestId, channel, item.rate(), item.dollarUp(), pokemon, background));
+        } finally {
+            lambdaPermits.release();
+        }
+        return Outcome.RENDERED;
+    }
+
+    private void saveProgress(String requestId, String progressKey, Set<String> completed) {
+        this.dynamoDBService.saveCachedValue(requestId, progressKey, String.join(PROGRESS_SEPARATOR, completed));
+    }
+
+    private void report(String requestId, String progressKey, int total, Map<Outcome, AtomicInteger> outcomes,
+                        Duration elapsed) {
+        int processed = outcomes.entrySet().stream()
+                .filter(entry -> entry.getKey().processed)
+                .mapToInt(entry -> entry.getValue().get())
+                .sum();
+        double perMinute = elapsed.isZero() ? 0 : processed * 60_000.0 / Math.max(1, elapsed.toMillis());
+
+        outcomes.forEach((outcome, count) -> this.metricsService.gauge(requestId,
+                "backfill." + outcome.name().toLowerCase(), count.get(), MetricsService.COUNT));
+        LOGGER.info("[{}] [END] Backfill {} finished in {} s: {} of {} rates processed ({} per minute). {}",
+                requestId, progressKey, elapsed.toSeconds(), processed, total, String.format("%.1f", perMinute),
+                outcomes.entrySet().stream()
+                        .map(entry -> entry.getKey().name().toLowerCase() + ": " + entry.getValue().get())
+                        .collect(Collectors.joining(", ")));
+    }
+
+    private static List<BackfillItem> toItems(List<DollarRate> rates) {
+        // each rate is rendered with the direction it had relative to the one before it
+        Set<BackfillItem> items = new LinkedHashSet<>();
+        DollarRate previous = null;
+        for (DollarRate rate : rates) {
+            items.add(new BackfillItem(rate, previous == null || rate.compareTo(previous) > 0));
+            previous = rate;
+        }
+        return new ArrayList<>(items);
+    }
+
+    private static String defaultJobId(List<BackfillItem> items) {
+        String inputs = items.stream().map(BackfillItem::key).collect(Collectors.joining(PROGRESS_SEPARATOR));
+        return UUID.nameUUIDFromBytes(inputs.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private static void count(Map<Outcome, AtomicInteger> outcomes, Outcome outcome) {
+        outcomes.computeIfAbsent(outcome, key -> new AtomicInteger()).incrementAndGet();
+    }
+
+    private record BackfillItem(DollarRate rate, boolean dollarUp) {
+        String key() {
+            return this.rate + (this.dollarUp ? "/up" : "/down");
+        }
+    }
+
+    private enum Outcome {
+        RENDERED(true), CACHED(true), WOULD_RENDER(true), SKIPPED(true), FAILED(true),
+        ALREADY_COMPLETED(false), DEFERRED(false);
+
+        private final boolean processed;
+
+        Outcome(boolean processed) {
+            this.processed = processed;
+        }
+    }
+}
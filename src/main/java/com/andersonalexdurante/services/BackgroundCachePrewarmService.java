@@ -0,0 +1,85 @@
+package com.andersonalexdurante.services;
+
+import com.andersonalexdurante.dto.PokemonDTO;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@ApplicationScoped
+public class BackgroundCachePrewarmService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackgroundCachePrewarmService.class);
+
+    @ConfigProperty(name = "BEDROCK_PREWARM_CONCURRENCY", defaultValue = "4")
+    int prewarmConcurrency;
+
+    @Inject
+    PokemonService pokemonService;
+    @Inject
+    BedrockService bedrockService;
+
+    public void prewarm(String requestId, int firstPokedexNumber, int lastPokedexNumber) {
+        LOGGER.info("[{}] [START] Pre-warming background descriptions for Pokedex #{} to #{} (concurrency: {})",
+                requestId, firstPokedexNumber, lastPokedexNumber, this.prewarmConcurrency);
+
+        long start = System.nanoTime();
+        Semaphore permits = new Semaphore(this.prewarmConcurrency);
+        AtomicInteger generated = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int pokedexNumber = firstPokedexNumber; pokedexNumber <= lastPokedexNumber; pokedexNumber++) {
+                int number = pokedexNumber;
+                executor.submit(() -> {
+                    if (mdc != null) {
+                        MDC.setContextMap(mdc);
+                    }
+                    try {
+                        permits.acquire();
+                        try {
+                            if (this.bedrockService.isBackgroundDescriptionCached(requestId, number)) {
+                                skipped.incrementAndGet();
+                                return null;
+                            }
+                            PokemonDTO pokemon = this.pokemonService.getPokemonData(requestId, number);
+                            String description = this.bedrockService.generateImageBackgroundDescription(requestId,
+                                    pokemon);
+                            if (description.isBlank()) {
+                                failed.incrementAndGet();
+                            } else {
+                                generated.incrementAndGet();
+                            }
+                        } finally {
+                            permits.release();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        LOGGER.warn("[{}] Failed to pre-warm background description for #{}: {}", requestId, number,
+                                e.getMessage());
+                    } finally {
+                        MDC.clear();
+                    }
+                    return null;
+                });
+            }
+        }
+
+        LOGGER.info("[{}] [END] Background descriptions pre-warmed in {} s. Generated: {}, already cached: {}, "
+                        + "failed: {}", requestId, Duration.ofNanos(System.nanoTime() - start).toSeconds(),
+                generated.get(), skipped.get(), failed.get());
+    }
+}
@@ -1,27 +1,57 @@
 package com.andersonalexdurante.services;
 
+import com.andersonalexdurante.configuration.SecondaryRegion;
+import com.andersonalexdurante.dto.CondensedDescriptions;
+import com.andersonalexdurante.dto.DollarRate;
 import com.andersonalexdurante.dto.DollarVariationDTO;
 import com.andersonalexdurante.dto.PokemonDTO;
+import com.andersonalexdurante.dto.PostTexts;
 import com.andersonalexdurante.dto.RandomSelection;
+import com.andersonalexdurante.exceptions.BedrockException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.AbortedException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeAsyncClient;
 import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeClient;
 import software.amazon.awssdk.services.bedrockruntime.model.*;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 @ApplicationScoped
 public class BedrockService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BedrockService.class);
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int MAX_BACKOFF_SHIFT = 16;
+    private static final String BACKGROUND_PROMPT = "background";
+    private static final String CAPTION_PROMPT = "caption";
+    private static final String COMBINED_PROMPT = "combined";
+    @Inject
+    ObjectMapper objectMapper;
 
     @ConfigProperty(name = "BEDROCK_CAPTION_PROMPT_ARN")
     String bedrockCaptionPromptArn;
@@ -29,23 +59,262 @@ public class BedrockService {
     @ConfigProperty(name = "BEDROCK_IMAGE_BACKGROUND_PROMPT_ARN")
     String bedrockImageBackgroundPromptArn;
 
+    @ConfigProperty(name = "BEDROCK_IMAGE_BACKGROUND_PROMPT_VERSION")
+    Optional<String> bedrockImageBackgroundPromptVersion;
+
+    @ConfigProperty(name = "BEDROCK_BACKGROUND_CACHE_ENABLED", defaultValue = "true")
+    boolean backgroundCacheEnabled;
+
     @Inject
     BedrockRuntimeClient bedrockClient;
 
+    @ConfigProperty(name = "BEDROCK_CAPTION_STREAMING", defaultValue = "false")
+    boolean captionStreamingEnabled;
+
+    @ConfigProperty(name = "BEDROCK_CAPTION_MAX_CHARACTERS", defaultValue = "2200")
+    int captionMaxCharacters;
+
+    @ConfigProperty(name = "BEDROCK_CAPTION_MAX_TOKENS", defaultValue = "700")
+    int captionMaxTokens;
+
+    @ConfigProperty(name = "BEDROCK_STREAM_TIMEOUT_SECONDS", defaultValue = "60")
+    long streamTimeoutSeconds;
+
+    @Inject
+    BedrockRuntimeAsyncClient bedrockAsyncClient;
+
+    @ConfigProperty(name = "BEDROCK_MAX_ATTEMPTS", defaultValue = "4")
+    int maxAttempts;
+
+    @ConfigProperty(name = "BEDROCK_RETRY_BASE_DELAY_MS", defaultValue = "500")
+    long retryBaseDelayMillis;
+
+    @ConfigProperty(name = "BEDROCK_RETRY_MAX_DELAY_MS", defaultValue = "8000")
+    long retryMaxDelayMillis;
+
+    @ConfigProperty(name = "BEDROCK_RETRY_DEADLINE_SECONDS", defaultValue = "45")
+    long retryDeadlineSeconds;
+
+    @ConfigProperty(name = "BEDROCK_SECONDARY_CAPTION_PROMPT_ARN")
+    Optional<String> secondaryCaptionPromptArn;
+
+    @ConfigProperty(name = "BEDROCK_SECONDARY_IMAGE_BACKGROUND_PROMPT_ARN")
+    Optional<String> secondaryImageBackgroundPromptArn;
+
+    @ConfigProperty(name = "BEDROCK_SECONDARY_REGION")
+    Optional<String> secondaryRegion;
+
+    @ConfigProperty(name = "BEDROCK_HEDGE_AFTER_MS", defaultValue = "0")
+    long hedgeAfterMillis;
+
+    @Inject
+    @SecondaryRegion
+    BedrockRuntimeClient secondaryBedrockClient;
+
+    @ConfigProperty(name = "BEDROCK_COMBINED_PROMPT_ARN")
+    Optional<String> combinedPromptArn;
+
+    @ConfigProperty(name = "BEDROCK_BACKGROUND_DESCRIPTION_TOKENS", defaultValue = "120")
+    int backgroundDescriptionTokens;
+
+    @ConfigProperty(name = "BEDROCK_CAPTION_DESCRIPTION_TOKENS", defaultValue = "160")
+    int captionDescriptionTokens;
+
+    @Inject
+    DynamoDBService dynamoDBService;
+
+    @Inject
+    DescriptionCondenser descriptionCondenser;
+
+    @Inject
+    MetricsService metricsService;
+
+    @Inject
+    RandomnessService randomnessService;
+
+    private final Map<String, String> backgroundDescriptionCache = new ConcurrentHashMap<>();
+
     public String generateImageBackgroundDescription(String requestId, PokemonDTO pokemonDTO) {
+        if (!this.backgroundCacheEnabled) {
+            return this.requestImageBackgroundDescription(requestId, pokemonDTO);
+        }
+
+        String cacheKey = this.getBackgroundCacheKey(pokemonDTO.number());
+        String cached = this.backgroundDescriptionCache.get(cacheKey);
+        if (cached != null) {
+            LOGGER.info("[{}] Background description for #{} served from memory", requestId, pokemonDTO.number());
+            return cached;
+        }
+
+        Optional<String> persisted = this.isBackgroundPromptDraft()
+                ? Optional.empty()
+                : this.dynamoDBService.getCachedValue(requestId, cacheKey);
+        if (persisted.isPresent()) {
+            LOGGER.info("[{}] Background description for #{} served from DynamoDB", requestId, pokemonDTO.number());
+            this.backgroundDescriptionCache.put(cacheKey, persisted.get());
+            return persisted.get();
+        }
+
+        String result = this.requestImageBackgroundDescription(requestId, pokemonDTO);
+        this.cacheBackgroundDescription(requestId, pokemonDTO.number(), result);
+        return result;
+    }
+
+    private void cacheBackgroundDescription(String requestId, int pokedexNumber, String description) {
+        if (!description.isBlank()) {
+            String cacheKey = this.getBackgroundCacheKey(pokedexNumber);
+            this.backgroundDescriptionCache.put(cacheKey, description);
+            if (!this.isBackgroundPromptDraft()) {
+                this.dynamoDBService.saveCachedValue(requestId, cacheKey, description);
+            }
+        }
+    }
+
+    public boolean isBackgroundDescriptionCached(String requestId, int pokedexNumber) {
+        String cacheKey = this.getBackgroundCacheKey(pokedexNumber);
+        return this.backgroundDescriptionCache.containsKey(cacheKey)
+                || !this.isBackgroundPromptDraft()
+                && this.dynamoDBService.getCachedValue(requestId, cacheKey).isPresent();
+    }
+
+    private String getBackgroundCacheKey(int pokedexNumber) {
+        return String.join("#", "background", this.bedrockImageBackgroundPromptArn,
+                this.getBackgroundPromptVersion(), String.valueOf(pokedexNumber));
+    }
+
+    private String getBackgroundPromptVersion() {
+        return this.bedrockImageBackgroundPromptVersion
+                .orElseGet(() -> getPromptVersion(this.bedrockImageBackgroundPromptArn));
+    }
+
+    // the DRAFT of a prompt can change under the same key, so its descriptions are only cached in memory
+    private boolean isBackgroundPromptDraft() {
+        return "DRAFT".equals(this.getBackgroundPromptVersion());
+    }
+
+    private static String getPromptVersion(String promptArn) {
+        String promptId = promptArn.substring(promptArn.lastIndexOf('/') + 1);
+        int versionSeparator = promptId.lastIndexOf(':');
+        return versionSeparator >= 0 ? promptId.substring(versionSeparator + 1) : "DRAFT";
+    }
+
+    private String requestImageBackgroundDescription(String requestId, PokemonDTO pokemonDTO) {
         LOGGER.info("[{}] Using prompt: {}", requestId, bedrockImageBackgroundPromptArn);
+        List<String> descriptions = this.condenseDescriptions(requestId, BACKGROUND_PROMPT, pokemonDTO,
+                this.backgroundDescriptionTokens);
         Map<String, PromptVariableValues> variables = Map.of(
                "pokemon", PromptVariableValues.builder().text(pokemonDTO.name()).build(),
-                "description", PromptVariableValues.builder().text(String.valueOf(pokemonDTO.descriptions())).build()
+                "description", PromptVariableValues.builder().text(String.valueOf(descriptions)).build()
         );
 
-        String result = sendRequestToBedrock(requestId, this.bedrockImageBackgroundPromptArn, variables);
+        String result = sendRequestToBedrock(requestId, BACKGROUND_PROMPT, this.bedrockImageBackgroundPromptArn,
+                this.secondaryImageBackgroundPromptArn, variables);
         LOGGER.info("{}", result);
         return result != null ? result : "";
     }
 
     public String generateCaption(String requestId, PokemonDTO pokemonData, DollarVariationDTO dollarVariationDTO,
-                                  String dollarExchangeRate) {
+                                  DollarRate dollarExchangeRate) {
+        Map<String, PromptVariableValues> variables = this.getCaptionVariables(requestId, CAPTION_PROMPT, pokemonData,
+                dollarVariationDTO, dollarExchangeRate);
+
+        String result = null;
+        if (this.captionStreamingEnabled) {
+            result = streamRequestToBedrock(requestId, this.bedrockCaptionPromptArn, variables);
+            if (result == null && !Thread.currentThread().isInterrupted()) {
+                // the stream has no retries or secondary prompt, the regular call does
+                LOGGER.warn("[{}] Caption stream failed, falling back to the regular call", requestId);
+                this.metricsService.increment(requestId, "bedrock.stream-fallback");
+            }
+        }
+        if (result == null && !Thread.currentThread().isInterrupted()) {
+            result = sendRequestToBedrock(requestId, CAPTION_PROMPT, this.bedrockCaptionPromptArn,
+                    this.secondaryCaptionPromptArn, variables);
+            if (result != null && result.startsWith("\"") && result.endsWith("\"")) {
+                result = result.replaceAll("^\"|\"$", "");
+            }
+        }
+        LOGGER.info("Caption: {}", result);
+        return result != null ? result : "#" + pokemonData.number() + " - " + pokemonData.name();
+    }
+
+    public boolean isCombinedPromptEnabled() {
+        return this.combinedPromptArn.isPresent();
+    }
+
+    /**
+     * Generates the background description and the caption with the combined prompt, which answers with a JSON
+     * object holding both. When the background description is already cached, or the answer does not pass
+     * validation, each text comes from its own prompt instead.
+     */
+    public PostTexts generatePostTexts(String requestId, PokemonDTO pokemonData, DollarVariationDTO dollarVariationDTO,
+                                       DollarRate dollarExchangeRate) {
+        boolean backgroundCached = this.backgroundCacheEnabled
+                && this.isBackgroundDescriptionCached(requestId, pokemonData.number());
+        if (this.combinedPromptArn.isPresent() && !backgroundCached) {
+            Map<String, PromptVariableValues> variables = this.getCaptionVariables(requestId, COMBINED_PROMPT,
+                    pokemonData, dollarVariationDTO, dollarExchangeRate);
+            LOGGER.info("[{}] Using prompt: {}", requestId, this.combinedPromptArn.get());
+            String result = sendRequestToBedrock(requestId, COMBINED_PROMPT, this.combinedPromptArn.get(),
+                    Optional.empty(), variables);
+
+            Optional<PostTexts> postTexts = this.parsePostTexts(requestId, result);
+            if (postTexts.isPresent()) {
+                if (this.backgroundCacheEnabled) {
+                    this.cacheBackgroundDescription(requestId, pokemonData.number(),
+                            postTexts.get().backgroundDescription());
+                }
+                LOGGER.info("Caption: {}", postTexts.get().caption());
+                return postTexts.get();
+            }
+            this.metricsService.increment(requestId, "bedrock.combined-fallback");
+            LOGGER.warn("[{}] Combined prompt gave no usable output, falling back to one call per text", requestId);
+        }
+
+        return new PostTexts(this.generateImageBackgroundDescription(requestId, pokemonData),
+                this.generateCaption(requestId, pokemonData, dollarVariationDTO, dollarExchangeRate));
+    }
+
+    private Optional<PostTexts> parsePostTexts(String requestId, String result) {
+        if (result == null) {
+            return Optional.empty();
+        }
+
+        // the object may come inside a markdown code fence; anything else around it is rejected
+        String json = result.strip();
+        if (json.startsWith("```")) {
+            json = json.replaceFirst("^```(?:json)?\\s*", "").replaceFirst("\\s*```$", "");
+        }
+        try {
+            JsonNode node = this.objectMapper.readTree(json);
+            if (node == null || !node.isObject() || node.size() != 2) {
+                throw new BedrockException("expected an object with exactly two fields");
+            }
+            String backgroundDescription = requiredText(node, "background_description");
+            String caption = requiredText(node, "caption");
+            if (caption.length() > this.captionMaxCharacters) {
+                throw new BedrockException("caption has " + caption.length() + " characters, the limit is "
+                        + this.captionMaxCharacters);
+            }
+            return Optional.of(new PostTexts(backgroundDescription, caption));
+        } catch (JsonProcessingException | BedrockException e) {
+            LOGGER.warn("[{}] Rejecting combined prompt output: {}", requestId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static String requiredText(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || !value.isTextual() || value.asText().isBlank()) {
+            throw new BedrockException("field " + field + " is missing or blank");
+        }
+        return value.asText().strip();
+    }
+
+    private Map<String, PromptVariableValues> getCaptionVariables(String requestId, String prompt,
+                                                                  PokemonDTO pokemonData,
+                                                                  DollarVariationDTO dollarVariationDTO,
+                                                                  DollarRate dollarExchangeRate) {
         String dollarVariation = String.format("%s %s",
                 dollarVariationDTO.isUp() ? "subiu" : "caiu",
                 dollarVariationDTO.variation().toString().replace(".", ","));
@@ -54,21 +323,37 @@ public class BedrockService {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yy");
         String formattedDate = actualDate.format(formatter);
 
-        Map<String, PromptVariableValues> variables = Map.of(
+        List<String> descriptions = this.condenseDescriptions(requestId, prompt, pokemonData,
+                this.captionDescriptionTokens);
+        return Map.of(
                 "dollar_variation", PromptVariableValues.builder().text(dollarVariation).build(),
-                "dollar_price", PromptVariableValues.builder().text(dollarExchangeRate.substring(0,4)).build(),
+                "dollar_price", PromptVariableValues.builder().text(dollarExchangeRate.format(2)).build(),
                 "day_of_week", PromptVariableValues.builder().text(formattedDate).build(),
                 "pokemon_name", PromptVariableValues.builder().text(pokemonData.name()).build(),
                 "pokemon_types", PromptVariableValues.builder().text(toJson(pokemonData.types())).build(),
                 "pokemon_descriptions",
-                PromptVariableValues.builder().text(toJson(pokemonData.descriptions())).build());
+                PromptVariableValues.builder().text(toJson(descriptions)).build());
+    }
 
-        String result = sendRequestToBedrock(requestId, this.bedrockCaptionPromptArn, variables);
-        if (result != null && result.startsWith("\"") && result.endsWith("\"")) {
-            result = result.replaceAll("^\"|\"$", "");
+    private List<String> condenseDescriptions(String requestId, String prompt, PokemonDTO pokemonDTO,
+                                              int tokenBudget) {
+        CondensedDescriptions condensed = this.descriptionCondenser.condense(pokemonDTO.descriptions(), tokenBudget);
+        LOGGER.info("[{}] {} prompt uses {} of {} descriptions for #{} (~{} of ~{} tokens)", requestId, prompt,
+                condensed.descriptions().size(), pokemonDTO.descriptions().size(), pokemonDTO.number(),
+                condensed.condensedTokens(), condensed.originalTokens());
+        this.metricsService.increment(requestId, "bedrock." + prompt + ".description-tokens-saved",
+                condensed.savedTokens());
+        return condensed.descriptions();
+    }
+
+    private void recordUsage(String requestId, String prompt, TokenUsage usage) {
+        if (usage == null) {
+            return;
         }
-        LOGGER.info("Caption: {}", result);
-        return result != null ? result : "#" + pokemonData.number() + " - " + pokemonData.name();
+        this.metricsService.increment(requestId, "bedrock." + prompt + ".input-tokens", usage.inputTokens());
+        this.metricsService.increment(requestId, "bedrock." + prompt + ".output-tokens", usage.outputTokens());
+        LOGGER.info("[{}] {} prompt used {} input and {} output tokens", requestId, prompt, usage.inputTokens(),
+                usage.outputTokens());
     }
 
     private String toJson(Object object) {
@@ -80,23 +365,222 @@ public class BedrockService {
         }
     }
 
-    private String sendRequestToBedrock(String requestId, String modelId, Map<String, PromptVariableValues> variables) {
+    private String sendRequestToBedrock(String requestId, String prompt, String modelId,
+                                        Optional<String> secondaryModelId,
+                                        Map<String, PromptVariableValues> variables) {
+        List<BedrockTarget> targets = new ArrayList<>();
+        targets.add(new BedrockTarget(prompt, "primary", this.bedrockClient, modelId));
+        secondaryModelId.ifPresent(secondary -> targets.add(new BedrockTarget(prompt, "secondary",
+                this.secondaryRegion.isPresent() ? this.secondaryBedrockClient : this.bedrockClient, secondary)));
+        Instant deadline = Instant.now().plusSeconds(this.retryDeadlineSeconds);
+
+        long start = System.nanoTime();
+        try {
+            LOGGER.info("[{}] Sending request to AWS Bedrock...", requestId);
+            String outputText = targets.size() == 1
+                    ? this.converseWithRetries(requestId, targets.getFirst(), variables, deadline)
+                    : this.converseHedged(requestId, targets, variables, deadline);
+            this.metricsService.recordLatency(requestId, "bedrock.call", Duration.ofNanos(System.nanoTime() - start));
+            LOGGER.info("[{}] AWS Bedrock output received successfully!", requestId);
+            return outputText;
+        } catch (Exception ex) {
+            this.metricsService.increment(requestId, "failure.bedrock");
+            LOGGER.error("[{}] [ERROR] An error occurred while calling AWS Bedrock: {}", requestId, ex.getMessage(), ex);
+            return null;
+        }
+    }
+
+    private String converseHedged(String requestId, List<BedrockTarget> targets,
+                                  Map<String, PromptVariableValues> variables, Instant deadline) {
+        List<Future<String>> futures = new ArrayList<>();
+        Throwable lastFailure = null;
+        // not try-with-resources: close() would wait for the cancelled losers to finish
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
         try {
-            ConverseRequest request = ConverseRequest.builder()
+            CompletionService<String> completion = new ExecutorCompletionService<>(executor);
+            futures.add(completion.submit(() -> this.converseWithRetries(requestId, targets.getFirst(), variables,
+                    deadline)));
+
+            int finished = 0;
+            while (finished < targets.size()) {
+                Future<String> done = futures.size() < targets.size() && this.hedgeAfterMillis > 0
+                        ? completion.poll(this.hedgeAfterMillis, TimeUnit.MILLISECONDS)
+                        : completion.take();
+
+                if (done == null) {
+                    BedrockTarget hedge = targets.get(futures.size());
+                    LOGGER.info("[{}] No Bedrock output after {} ms, hedging with {} prompt {}", requestId,
+                            this.hedgeAfterMillis, hedge.name(), hedge.modelId());
+                    this.metricsService.increment(requestId, "bedrock.hedged");
+                    futures.add(completion.submit(() -> this.converseWithRetries(requestId, hedge, variables,
+                            deadline)));
+                    continue;
+                }
+
+                finished++;
+                try {
+                    return done.get();
+                } catch (ExecutionException e) {
+                    lastFailure = e.getCause();
+                    if (futures.size() < targets.size()) {
+                        BedrockTarget fallback = targets.get(futures.size());
+                        LOGGER.warn("[{}] Bedrock call failed ({}), falling back to {} prompt {}", requestId,
+                                lastFailure.getMessage(), fallback.name(), fallback.modelId());
+                        this.metricsService.increment(requestId, "bedrock.fallback");
+                        futures.add(completion.submit(() -> this.converseWithRetries(requestId, fallback,
+                                variables, deadline)));
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BedrockException("Interrupted while calling AWS Bedrock.", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        throw new BedrockException("Every Bedrock prompt failed.", lastFailure);
+    }
+
+    private String converseWithRetries(String requestId, BedrockTarget target,
+                                       Map<String, PromptVariableValues> variables, Instant deadline) {
+        ConverseRequest request = ConverseRequest.builder()
+                .modelId(target.modelId())
+                .promptVariables(variables)
+                .build();
+
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                ConverseResponse response = target.client().converse(request);
+                this.recordAttempt(requestId, Outcome.SUCCESS, start);
+                this.recordUsage(requestId, target.prompt(), response.usage());
+                return response.output().message().content().getFirst().text();
+            } catch (SdkException e) {
+                if (e instanceof AbortedException || Thread.currentThread().isInterrupted()) {
+                    // cancelled by the other side of a hedge
+                    throw e;
+                }
+                Outcome outcome = Outcome.classify(e);
+                this.recordAttempt(requestId, outcome, start);
+                if (!outcome.retryable) {
+                    throw e;
+                }
+                if (attempt >= this.maxAttempts) {
+                    LOGGER.warn("[{}] Bedrock {} prompt still failing after {} attempts", requestId, target.name(),
+                            attempt);
+                    throw e;
+                }
+
+                Duration backoff = this.backoff(outcome == Outcome.NOT_READY ? attempt + 1 : attempt);
+                if (Instant.now().plus(backoff).isAfter(deadline)) {
+                    LOGGER.warn("[{}] No time left to retry the Bedrock {} prompt after {} attempts", requestId,
+                            target.name(), attempt);
+                    throw e;
+                }
+                LOGGER.warn("[{}] Bedrock {} prompt attempt {} {} ({}), retrying in {} ms", requestId,
+                        target.name(), attempt, outcome.metricName, e.getMessage(), backoff.toMillis());
+                this.metricsService.increment(requestId, "retry.bedrock");
+                try {
+                    Thread.sleep(backoff.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new BedrockException("Interrupted while backing off from AWS Bedrock.", interrupted);
+                }
+            }
+        }
+    }
+
+    private Duration backoff(int attempt) {
+        // full jitter: a uniform delay up to the exponential ceiling, so throttled runs do not retry in step
+        long ceiling = Math.min(this.retryMaxDelayMillis,
+                this.retryBaseDelayMillis << Math.min(attempt - 1, MAX_BACKOFF_SHIFT));
+        return Duration.ofMillis(this.randomnessService.nextLong(Math.max(1, ceiling) + 1));
+    }
+
+    private void recordAttempt(String requestId, Outcome outcome, long startNanos) {
+        this.metricsService.increment(requestId, "bedrock.attempts");
+        this.metricsService.recordLatency(requestId, "bedrock." + outcome.metricName,
+                Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+
+    private String streamRequestToBedrock(String requestId, String modelId,
+                                          Map<String, PromptVariableValues> variables) {
+        CaptionStreamCollector collector = new CaptionStreamCollector(this.captionMaxCharacters,
+                this.captionMaxTokens);
+        try {
+            ConverseStreamRequest request = ConverseStreamRequest.builder()
                     .modelId(modelId)
                     .promptVariables(variables)
                     .build();
 
-            LOGGER.info("[{}] Sending request to AWS Bedrock...", requestId);
-            ConverseResponse response = this.bedrockClient.converse(request);
+            LOGGER.info("[{}] Sending streaming request to AWS Bedrock...", requestId);
+            this.bedrockAsyncClient.converseStream(request, ConverseStreamResponseHandler.builder()
+                    .onEventStream(publisher -> publisher.subscribe(collector))
+                    .onError(collector::fail)
+                    .build());
 
-            String outputText = response.output().message().content().getFirst().text();
-            LOGGER.info("[{}] AWS Bedrock output received successfully!", requestId);
+            String outputText = collector.result().get(this.streamTimeoutSeconds, TimeUnit.SECONDS);
+            LOGGER.info("[{}] AWS Bedrock stream received successfully! Time to first token: {} ms, total: {} ms, "
+                            + "tokens: {}, truncated: {}", requestId, collector.timeToFirstToken().toMillis(),
+                    collector.totalTime().toMillis(), collector.tokens(), collector.truncated());
+            this.recordUsage(requestId, CAPTION_PROMPT, collector.usage());
             return outputText;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            LOGGER.error("[{}] [ERROR] Interrupted while streaming from AWS Bedrock", requestId);
+            return null;
         } catch (Exception ex) {
-            LOGGER.error("[{}] [ERROR] An error occurred while calling AWS Bedrock: {}", requestId, ex.getMessage(), ex);
+            LOGGER.error("[{}] [ERROR] An error occurred while streaming from AWS Bedrock: {}", requestId,
+                    ex.getMessage(), ex);
             return null;
+        } finally {
+            collector.cancel();
         }
     }
 
+    private record BedrockTarget(String prompt, String name, BedrockRuntimeClient client, String modelId) {
+    }
+
+    private enum Outcome {
+        SUCCESS("success", false),
+        THROTTLED("throttled", true),
+        NOT_READY("not-ready", true),
+        UNAVAILABLE("unavailable", true),
+        INVALID("invalid", false),
+        FAILED("failed", false);
+
+        private final String metricName;
+        private final boolean retryable;
+
+        Outcome(String metricName, boolean retryable) {
+            this.metricName = metricName;
+            this.retryable = retryable;
+        }
+
+        private static Outcome classify(SdkException exception) {
+            if (!(exception instanceof AwsServiceException serviceException)) {
+                // connection resets and client-side timeouts
+                return exception.retryable() || exception instanceof SdkClientException ? UNAVAILABLE : FAILED;
+            }
+
+            String errorCode = serviceException.awsErrorDetails() != null
+                    ? serviceException.awsErrorDetails().errorCode() : null;
+            if ("ThrottlingException".equals(errorCode) || serviceException.statusCode() == 429) {
+                return THROTTLED;
+            }
+            if ("ModelNotReadyException".equals(errorCode)) {
+                return NOT_READY;
+            }
+            if ("ValidationException".equals(errorCode) || "AccessDeniedException".equals(errorCode)
+                    || "ResourceNotFoundException".equals(errorCode)) {
+                return INVALID;
+            }
+            if ("ModelTimeoutException".equals(errorCode) || "ServiceUnavailableException".equals(errorCode)
+                    || "InternalServerException".equals(errorCode) || serviceException.statusCode() >= 500) {
+                return UNAVAILABLE;
+            }
+            return FAILED;
+        }
+    }
 }
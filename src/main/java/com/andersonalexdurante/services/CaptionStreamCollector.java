@@ -0,0 +1,136 @@
+package com.andersonalexdurante.services;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.services.bedrockruntime.model.ContentBlockDeltaEvent;
+import software.amazon.awssdk.services.bedrockruntime.model.ConverseStreamMetadataEvent;
+import software.amazon.awssdk.services.bedrockruntime.model.ConverseStreamOutput;
+import software.amazon.awssdk.services.bedrockruntime.model.TokenUsage;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Collects a ConverseStream response, dropping the surrounding quotes the model sometimes adds and
+ * cancelling the stream once the text reaches the character limit or the token budget. The token usage from
+ * the stream metadata is kept when the stream runs to the end.
+ */
+class CaptionStreamCollector implements Subscriber<ConverseStreamOutput> {
+
+    private final int maxCharacters;
+    private final int maxTokens;
+    private final long startNanos = System.nanoTime();
+    private final StringBuilder text = new StringBuilder();
+    private final CompletableFuture<String> result = new CompletableFuture<>();
+    private Subscription subscription;
+    private boolean leadingQuote;
+    private int tokens;
+    private long firstTokenNanos;
+    private long endNanos;
+    private boolean truncated;
+    private TokenUsage usage;
+
+    CaptionStreamCollector(int maxCharacters, int maxTokens) {
+        this.maxCharacters = maxCharacters;
+        this.maxTokens = maxTokens;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public synchronized void onNext(ConverseStreamOutput event) {
+        if (event instanceof ConverseStreamMetadataEvent metadata) {
+            this.usage = metadata.usage();
+            return;
+        }
+        if (this.result.isDone() || !(event instanceof ContentBlockDeltaEvent contentDelta)
+                || contentDelta.delta().text() == null) {
+            return;
+        }
+
+        String delta = contentDelta.delta().text();
+        if (this.tokens++ == 0) {
+            this.firstTokenNanos = System.nanoTime();
+        }
+        if (this.text.isEmpty() && !this.leadingQuote && delta.startsWith("\"")) {
+            this.leadingQuote = true;
+            delta = delta.substring(1);
+        }
+        this.text.append(delta);
+
+        // finish() puts the leading quote back on a truncated text, so it needs one character of the limit
+        int maxLength = this.leadingQuote ? this.maxCharacters - 1 : this.maxCharacters;
+        if (this.text.length() >= maxLength || this.tokens >= this.maxTokens) {
+            this.truncated = true;
+            this.text.setLength(Math.min(this.text.length(), maxLength));
+            this.subscription.cancel();
+            this.finish();
+        }
+    }
+
+    @Override
+    public synchronized void onError(Throwable throwable) {
+        this.endNanos = System.nanoTime();
+        this.result.completeExceptionally(throwable);
+    }
+
+    @Override
+    public synchronized void onComplete() {
+        this.finish();
+    }
+
+    CompletableFuture<String> result() {
+        return this.result;
+    }
+
+    synchronized void fail(Throwable throwable) {
+        this.onError(throwable);
+    }
+
+    synchronized void cancel() {
+        if (this.subscription != null && !this.result.isDone()) {
+            this.subscription.cancel();
+            this.result.cancel(false);
+        }
+    }
+
+    synchronized Duration timeToFirstToken() {
+        return this.firstTokenNanos == 0 ? Duration.ZERO : Duration.ofNanos(this.firstTokenNanos - this.startNanos);
+    }
+
+    synchronized Duration totalTime() {
+        return Duration.ofNanos((this.endNanos == 0 ? System.nanoTime() : this.endNanos) - this.startNanos);
+    }
+
+    synchronized int tokens() {
+        return this.tokens;
+    }
+
+    synchronized boolean truncated() {
+        return this.truncated;
+    }
+
+    synchronized TokenUsage usage() {
+        return this.usage;
+    }
+
+    private void finish() {
+        if (this.result.isDone()) {
+            return;
+        }
+        this.endNanos = System.nanoTime();
+        int last = this.text.length() - 1;
+        if (this.leadingQuote) {
+            if (!this.truncated && last >= 0 && this.text.charAt(last) == '"') {
+                this.text.setLength(last);
+            } else {
+                this.text.insert(0, '"');
+            }
+        }
+        this.result.complete(this.text.toString());
+    }
+}
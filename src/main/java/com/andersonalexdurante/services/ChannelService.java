@@ -0,0 +1,88 @@
+package com.andersonalexdurante.services;
+
+import com.andersonalexdurante.dto.Channel;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@ApplicationScoped
+public class ChannelService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChannelService.class);
+    private static final String SUPPORTED_CURRENCY_PAIR = "USD-BRL";
+    private static final String DEFAULT_CHANNEL_ID = "pokedolar";
+    private static final String DEFAULT_ACCESS_TOKEN_PARAMETER = "instagram_access_token";
+    private static final String DEFAULT_POSTS_CONTEXT_ID = "posts";
+
+    @ConfigProperty(name = "INSTAGRAM_POKEDOLAR_USERID")
+    String instagramPokedolarUserId;
+
+    // id=account:<ig user id>,token:<ssm parameter>,context:<posts partition>,prefix:<s3 prefix>;...
+    @ConfigProperty(name = "CHANNELS")
+    Optional<String> channelsConfig;
+
+    private List<Channel> channels;
+
+    @PostConstruct
+    void loadChannels() {
+        List<Channel> configured = new ArrayList<>();
+        for (String definition : this.channelsConfig.orElse("").split(";")) {
+            String[] idAndSettings = definition.split("=", 2);
+            if (idAndSettings.length != 2 || idAndSettings[0].isBlank()) {
+                continue;
+            }
+            configured.add(this.parseChannel(idAndSettings[0].trim(), idAndSettings[1]));
+        }
+        if (configured.isEmpty()) {
+            configured.add(new Channel(DEFAULT_CHANNEL_ID, this.instagramPokedolarUserId,
+                    DEFAULT_ACCESS_TOKEN_PARAMETER, DEFAULT_POSTS_CONTEXT_ID, S3Service.RENDERS_PREFIX));
+        }
+
+        if (configured.stream().map(Channel::postsContextId).distinct().count() != configured.size()) {
+            throw new IllegalStateException("Every channel needs its own posts context");
+        }
+        this.channels = List.copyOf(configured);
+        LOGGER.info("Channels configured: {}", this.channels);
+    }
+
+    public List<Channel> getChannels() {
+        return this.channels;
+    }
+
+    public Channel getDefaultChannel() {
+        return this.channels.getFirst();
+    }
+
+    public Optional<Channel> getChannel(String id) {
+        return this.channels.stream().filter(channel -> channel.id().equals(id)).findFirst();
+    }
+
+    private Channel parseChannel(String id, String settings) {
+        Map<String, String> values = new HashMap<>();
+        for (String setting : settings.split(",")) {
+            String[] keyAndValue = setting.split(":", 2);
+            if (keyAndValue.length == 2) {
+                values.put(keyAndValue[0].trim(), keyAndValue[1].trim());
+            }
+        }
+        // captions (Bedrock prompts) and renders speak of the dollar, so every channel posts USD-BRL
+        String pair = values.getOrDefault("pair", SUPPORTED_CURRENCY_PAIR);
+        if (!SUPPORTED_CURRENCY_PAIR.equals(pair)) {
+            throw new IllegalStateException("Channel " + id + " posts " + pair + ", only " + SUPPORTED_CURRENCY_PAIR
+                    + " is supported");
+        }
+        return new Channel(id,
+                values.getOrDefault("account", this.instagramPokedolarUserId),
+                values.getOrDefault("token", DEFAULT_ACCESS_TOKEN_PARAMETER),
+                values.getOrDefault("context", id),
+                values.getOrDefault("prefix", S3Service.RENDERS_PREFIX + id + "/"));
+    }
+}
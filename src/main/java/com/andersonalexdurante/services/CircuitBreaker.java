@@ -0,0 +1,85 @@
+package com.andersonalexdurante.services;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Fails calls fast while an upstream is unhealthy. After {@code failureThreshold} consecutive failures the circuit
+ * opens for {@code openDuration}; then a single trial call is let through and its outcome closes or re-opens it.
+ * The upstream can also ask for a pause (Retry-After, usage headers), which keeps the circuit open until then.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openUntil = Instant.MIN;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Circuit breaker needs a failure threshold of at least 1");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    public synchronized boolean allowRequest() {
+        return switch (this.state) {
+            case CLOSED -> true;
+            case OPEN -> {
+                if (Instant.now().isBefore(this.openUntil)) {
+                    yield false;
+                }
+                this.state = State.HALF_OPEN;
+                yield true;
+            }
+            // only the trial call goes through until it reports back
+            case HALF_OPEN -> false;
+        };
+    }
+
+    public synchronized void recordSuccess() {
+        if (Instant.now().isBefore(this.openUntil)) {
+            // a pause requested by the upstream outlasts successes of calls already in flight
+            return;
+        }
+        this.consecutiveFailures = 0;
+        this.state = State.CLOSED;
+    }
+
+    public synchronized void recordFailure() {
+        this.consecutiveFailures++;
+        if (this.state == State.HALF_OPEN || this.consecutiveFailures >= this.failureThreshold) {
+            this.openUntil(Instant.now().plus(this.openDuration));
+        }
+    }
+
+    /**
+     * The call was interrupted or cancelled (a lost hedge, a shutdown) before the upstream answered, which says
+     * nothing about its health. A half-open trial goes back to open without extending it, so the next call is
+     * the new trial.
+     */
+    public synchronized void recordAbandoned() {
+        if (this.state == State.HALF_OPEN) {
+            this.state = State.OPEN;
+        }
+    }
+
+    public synchronized void openUntil(Instant until) {
+        this.state = State.OPEN;
+        if (until.isAfter(this.openUntil)) {
+            this.openUntil = until;
+        }
+    }
+
+    public synchronized Instant retryAt() {
+        return this.openUntil;
+    }
+
+    public synchronized State state() {
+        return this.state;
+    }
+}
@@ -0,0 +1,141 @@
+package com.andersonalexdurante.services;
+
+import com.andersonalexdurante.dto.CondensedDescriptions;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Shrinks the PokeAPI flavour texts of a Pokemon to what a prompt needs. Entries repeated across games are
+ * dropped when their word sets overlap above the similarity threshold (the wordier one is kept), then the
+ * remaining entries are picked greedily by new words per token until the prompt's token budget is spent.
+ * At least one description is always kept; the selection keeps the PokeAPI order.
+ */
+@ApplicationScoped
+public class DescriptionCondenser {
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}']+");
+    private static final Pattern WHITESPACE = Pattern.compile("[\\s\\u00AD]+");
+    // Bedrock does not expose its tokenizer; four characters per token is close enough for English prose
+    private static final double CHARACTERS_PER_TOKEN = 4.0;
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "are", "as", "at", "be", "by", "can",
+            "for", "from", "has", "have", "if", "in", "into", "is", "it", "it's", "its", "of", "on", "or", "so",
+            "that", "the", "their", "them", "they", "this", "to", "when", "which", "while", "will", "with");
+
+    @ConfigProperty(name = "DESCRIPTION_CONDENSER_ENABLED", defaultValue = "true")
+    boolean condenserEnabled;
+
+    @ConfigProperty(name = "DESCRIPTION_SIMILARITY_THRESHOLD", defaultValue = "0.6")
+    double similarityThreshold;
+
+    public CondensedDescriptions condense(List<String> descriptions, int tokenBudget) {
+        int originalTokens = descriptions.stream().mapToInt(DescriptionCondenser::estimateTokens).sum();
+        if (!this.condenserEnabled || descriptions.size() <= 1) {
+            return new CondensedDescriptions(descriptions, originalTokens, originalTokens);
+        }
+
+        List<Candidate> candidates = this.deduplicate(descriptions);
+        List<Candidate> selected = select(candidates, tokenBudget);
+        selected.sort(Comparator.comparingInt(Candidate::position));
+
+        List<String> condensed = selected.stream().map(Candidate::text).toList();
+        int condensedTokens = selected.stream().mapToInt(Candidate::tokens).sum();
+        return new CondensedDescriptions(condensed, originalTokens, condensedTokens);
+    }
+
+    static int estimateTokens(String text) {
+        return (int) Math.ceil(text.length() / CHARACTERS_PER_TOKEN);
+    }
+
+    private List<Candidate> deduplicate(List<String> descriptions) {
+        List<Candidate> candidates = new ArrayList<>();
+        for (int position = 0; position < descriptions.size(); position++) {
+            String text = WHITESPACE.matcher(descriptions.get(position)).replaceAll(" ").trim();
+            if (text.isEmpty()) {
+                continue;
+            }
+            Candidate candidate = new Candidate(position, text, words(text), estimateTokens(text));
+
+            int duplicate = -1;
+            for (int i = 0; i < candidates.size() && duplicate < 0; i++) {
+                if (jaccard(candidates.get(i).words(), candidate.words()) >= this.similarityThreshold) {
+                    duplicate = i;
+                }
+            }
+            if (duplicate < 0) {
+                candidates.add(candidate);
+            } else if (candidate.words().size() > candidates.get(duplicate).words().size()) {
+                candidates.set(duplicate, candidate);
+            }
+        }
+        return candidates;
+    }
+
+    private static List<Candidate> select(List<Candidate> candidates, int tokenBudget) {
+        List<Candidate> pool = new ArrayList<>(candidates);
+        List<Candidate> selected = new ArrayList<>();
+        Set<String> covered = new HashSet<>();
+        int remaining = tokenBudget;
+
+        while (!pool.isEmpty()) {
+            Candidate best = null;
+            double bestScore = 0;
+            for (Candidate candidate : pool) {
+                if (candidate.tokens() > remaining) {
+                    continue;
+                }
+                long newWords = candidate.words().stream().filter(word -> !covered.contains(word)).count();
+                double score = newWords / (double) Math.max(1, candidate.tokens());
+                if (newWords > 0 && score > bestScore) {
+                    best = candidate;
+                    bestScore = score;
+                }
+            }
+            if (best == null && selected.isEmpty()) {
+                // nothing fits the budget: the shortest description is better than none
+                best = pool.stream().min(Comparator.comparingInt(Candidate::tokens)).orElseThrow();
+            }
+            if (best == null) {
+                break;
+            }
+
+            selected.add(best);
+            pool.remove(best);
+            covered.addAll(best.words());
+            remaining -= best.tokens();
+        }
+        return selected;
+    }
+
+    private static Set<String> words(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        Matcher matcher = WORD.matcher(text.toLowerCase(Locale.ROOT));
+        while (matcher.find()) {
+            String word = matcher.group();
+            if (!STOP_WORDS.contains(word)) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static double jaccard(Set<String> first, Set<String> second) {
+        if (first.isEmpty() && second.isEmpty()) {
+            return 1;
+        }
+        long shared = first.stream().filter(second::contains).count();
+        return shared / (double) (first.size() + second.size() - shared);
+    }
+
+    private record Candidate(int position, String text, Set<String> words, int tokens) {
+    }
+}
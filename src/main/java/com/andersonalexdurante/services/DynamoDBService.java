@@ -1,12 +1,15 @@
 package com.andersonalexdurante.services;
 
+import com.andersonalexdurante.dto.DollarRate;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 
@@ -19,12 +22,25 @@ public class DynamoDBService {
     @Inject
     DynamoDbClient dynamoDbClient;
 
-    public void savePost(String requestId, String pokemon, String dollarValue, String caption) {
+    @ConfigProperty(name = "BEDROCK_CACHE_TABLE", defaultValue = "PokeDolarBedrockCache")
+    String bedrockCacheTable;
+
+    @ConfigProperty(name = "BEDROCK_CACHE_TTL_DAYS", defaultValue = "90")
+    long bedrockCacheTtlDays;
+
+    @ConfigProperty(name = "CHECKPOINT_TABLE", defaultValue = "PokeDolarCheckpoints")
+    String checkpointTable;
+
+    @ConfigProperty(name = "CHECKPOINT_TTL_HOURS", defaultValue = "24")
+    long checkpointTtlHours;
+
+    public boolean savePost(String requestId, String contextId, String pokemon, DollarRate dollarValue,
+                            String caption) {
         Map<String, AttributeValue> item = new HashMap<>();
-        item.put("context_id", AttributeValue.builder().s("posts").build());
+        item.put("context_id", AttributeValue.builder().s(contextId).build());
         item.put("timestamp", AttributeValue.builder().s(Instant.now().toString()).build());
         item.put("pokemon", AttributeValue.builder().s(pokemon).build());
-        item.put("dollar_rate", AttributeValue.builder().s(String.valueOf(dollarValue)).build());
+        item.put("dollar_rate", AttributeValue.builder().s(dollarValue.toString()).build());
         item.put("caption", AttributeValue.builder().s(caption).build());
 
         PutItemRequest request = PutItemRequest.builder()
@@ -34,19 +50,21 @@ public class DynamoDBService {
 
         try {
             this.dynamoDbClient.putItem(request);
-            LOGGER.info("[{}] Post saved successfully.", requestId);
+            LOGGER.info("[{}] Post saved successfully in {}.", requestId, contextId);
+            return true;
         } catch (Exception e) {
             LOGGER.error("[{}] Error saving post: {}", requestId, e.getMessage(), e);
+            return false;
         }
     }
 
-    public Optional<String> getLastDollarRate(String requestId) {
-        LOGGER.info("[{}] Fetching last dollar rate.", requestId);
+    public Optional<DollarRate> getLastDollarRate(String requestId, String contextId) {
+        LOGGER.info("[{}] Fetching last rate posted in {}.", requestId, contextId);
 
         QueryRequest queryRequest = QueryRequest.builder()
                 .tableName(POKE_DOLAR_POSTS_TABLE)
                 .keyConditionExpression("context_id = :context")
-                .expressionAttributeValues(Map.of(":context", AttributeValue.builder().s("posts").build()))
+                .expressionAttributeValues(Map.of(":context", AttributeValue.builder().s(contextId).build()))
                 .projectionExpression("dollar_rate")
                 .limit(1)
                 .scanIndexForward(false)
@@ -55,11 +73,11 @@ public class DynamoDBService {
         try {
             QueryResponse response = this.dynamoDbClient.query(queryRequest);
             if (!response.items().isEmpty()) {
-                String dollarRate = response.items().getFirst().get("dollar_rate").s();
-                LOGGER.info("[{}] Last dollar rate: {}", requestId, dollarRate);
-                return Optional.ofNullable(dollarRate);
+                AttributeValue dollarRate = response.items().getFirst().get("dollar_rate");
+                LOGGER.info("[{}] Last rate in {}: {}", requestId, contextId, dollarRate.s());
+                return Optional.of(DollarRate.parse(dollarRate.s()));
             } else {
-                LOGGER.warn("[{}] No dollar rate found.", requestId);
+                LOGGER.warn("[{}] No rate found in {}.", requestId, contextId);
                 return Optional.empty();
             }
         } catch (Exception e) {
@@ -67,4 +85,111 @@ public class DynamoDBService {
             return Optional.empty();
         }
     }
+
+    public Optional<String> getCachedValue(String requestId, String cacheKey) {
+        GetItemRequest request = GetItemRequest.builder()
+                .tableName(this.bedrockCacheTable)
+                .key(Map.of("cache_key", AttributeValue.builder().s(cacheKey).build()))
+                .projectionExpression("cached_value")
+                .build();
+
+        try {
+            GetItemResponse response = this.dynamoDbClient.getItem(request);
+            if (response.hasItem() && response.item().containsKey("cached_value")) {
+                LOGGER.debug("[{}] Cache hit for {}", requestId, cacheKey);
+                return Optional.of(response.item().get("cached_value").s());
+            }
+            return Optional.empty();
+        } catch (Exception e) {
+            LOGGER.error("[{}] Error reading cached value {}: {}", requestId, cacheKey, e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
+
+    public void saveCachedValue(String requestId, String cacheKey, String value) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("cache_key", AttributeValue.builder().s(cacheKey).build());
+        item.put("cached_value", AttributeValue.builder().s(value).build());
+        item.put("timestamp", AttributeValue.builder().s(Instant.now().toString()).build());
+        long expiresAt = Instant.now().plus(Duration.ofDays(this.bedrockCacheTtlDays)).getEpochSecond();
+        item.put("expires_at", AttributeValue.builder().n(String.valueOf(expiresAt)).build());
+
+        try {
+            this.dynamoDbClient.putItem(PutItemRequest.builder()
+                    .tableName(this.bedrockCacheTable)
+                    .item(item)
+                    .build());
+            LOGGER.debug("[{}] Cached value saved for {}", requestId, cacheKey);
+        } catch (Exception e) {
+            LOGGER.error("[{}] Error saving cached value {}: {}", requestId, cacheKey, e.getMessage(), e);
+        }
+    }
+
+    public Map<String, String> getCheckpoint(String requestId, String checkpointKey) {
+        GetItemRequest request = GetItemRequest.builder()
+                .tableName(this.checkpointTable)
+                .key(Map.of("checkpoint_key", AttributeValue.builder().s(checkpointKey).build()))
+                .consistentRead(true)
+                .build();
+
+        try {
+            GetItemResponse response = this.dynamoDbClient.getItem(request);
+            if (!response.hasItem()) {
+                return Map.of();
+            }
+            // TTL deletion can lag by days, and an expired checkpoint would resume yesterday's stage outputs
+            AttributeValue expiresAt = response.item().get("expires_at");
+            if (expiresAt != null && expiresAt.n() != null
+                    && Long.parseLong(expiresAt.n()) < Instant.now().getEpochSecond()) {
+                LOGGER.info("[{}] Checkpoint for {} expired, starting over", requestId, checkpointKey);
+                this.deleteCheckpoint(requestId, checkpointKey);
+                return Map.of();
+            }
+            Map<String, String> checkpoint = new HashMap<>();
+            response.item().forEach((name, value) -> {
+                if (value.s() != null) {
+                    checkpoint.put(name, value.s());
+                }
+            });
+            LOGGER.info("[{}] Checkpoint found for {}: {}", requestId, checkpointKey, checkpoint.keySet());
+            return checkpoint;
+        } catch (Exception e) {
+            LOGGER.error("[{}] Error reading checkpoint for {}: {}", requestId, checkpointKey, e.getMessage(), e);
+            return Map.of();
+        }
+    }
+
+    public void saveCheckpointValue(String requestId, String checkpointKey, String name, String value) {
+        long expiresAt = Instant.now().plus(Duration.ofHours(this.checkpointTtlHours)).getEpochSecond();
+        UpdateItemRequest request = UpdateItemRequest.builder()
+                .tableName(this.checkpointTable)
+                .key(Map.of("checkpoint_key", AttributeValue.builder().s(checkpointKey).build()))
+                .updateExpression("SET #name = :value, #timestamp = :timestamp, expires_at = :expiresAt")
+                .expressionAttributeNames(Map.of("#name", name, "#timestamp", "timestamp"))
+                .expressionAttributeValues(Map.of(
+                        ":value", AttributeValue.builder().s(value).build(),
+                        ":timestamp", AttributeValue.builder().s(Instant.now().toString()).build(),
+                        ":expiresAt", AttributeValue.builder().n(String.valueOf(expiresAt)).build()))
+                .build();
+
+        try {
+            this.dynamoDbClient.updateItem(request);
+            LOGGER.debug("[{}] Checkpoint {} saved for {}", requestId, name, checkpointKey);
+        } catch (Exception e) {
+            LOGGER.error("[{}] Error saving checkpoint {} for {}: {}", requestId, name, checkpointKey,
+                    e.getMessage(), e);
+        }
+    }
+
+    public void deleteCheckpoint(String requestId, String checkpointKey) {
+        try {
+            this.dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                    .tableName(this.checkpointTable)
+                    .key(Map.of("checkpoint_key", AttributeValue.builder().s(checkpointKey).build()))
+                    .build());
+            LOGGER.debug("[{}] Checkpoint deleted for {}", requestId, checkpointKey);
+        } catch (Exception e) {
+            LOGGER.error("[{}] Error deleting checkpoint for {}: {}", requestId, checkpointKey, e.getMessage(), e);
+        }
+    }
 }
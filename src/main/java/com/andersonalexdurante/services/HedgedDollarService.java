@@ -0,0 +1,198 @@
+package com.andersonalexdurante.services;
+
+import com.andersonalexdurante.dto.DollarRate;
+import com.andersonalexdurante.exceptions.DollarException;
+import com.andersonalexdurante.interfaces.IDollarService;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries every dollar provider, healthiest first, starting the next one whenever the previous ones did not
+ * answer within the hedge delay or failed. The first valid rate wins and is normalised to the configured
+ * number of decimals.
+ */
+@ApplicationScoped
+public class HedgedDollarService implements IDollarService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HedgedDollarService.class);
+    private static final int LATENCY_SAMPLES = 64;
+    private static final double ERROR_RATE_SMOOTHING = 0.2;
+
+    @ConfigProperty(name = "DOLLAR_HEDGE_DELAY_MS", defaultValue = "500")
+    long hedgeDelayMillis;
+
+    @ConfigProperty(name = "DOLLAR_RATE_DECIMALS", defaultValue = "2")
+    int dollarRateDecimals;
+
+    @Inject
+    AwesomeApiDollarService awesomeApiDollarService;
+
+    @Inject
+    WiseApiDollarService wiseApiDollarService;
+
+    private List<ProviderHealth> providers;
+
+    @PostConstruct
+    void initProviders() {
+        this.providers = List.of(new ProviderHealth("AWESOME", this.awesomeApiDollarService),
+                new ProviderHealth("WISE", this.wiseApiDollarService));
+    }
+
+    @Override
+    public int getRateDecimals() {
+        return this.dollarRateDecimals;
+    }
+
+    @Override
+    public DollarRate getDollarExchangeRate(String requestId) {
+        List<ProviderHealth> ranked = this.providers.stream()
+                .sorted(Comparator.comparingDouble(ProviderHealth::score))
+                .toList();
+        LOGGER.info("[{}] Querying dollar providers in order {}", requestId, ranked);
+
+        List<Future<DollarRate>> futures = new ArrayList<>();
+        Throwable lastFailure = null;
+        // not try-with-resources: close() would wait for the cancelled losers to finish
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            CompletionService<DollarRate> completion = new ExecutorCompletionService<>(executor);
+            futures.add(completion.submit(() -> this.fetch(requestId, ranked.getFirst())));
+
+            int finished = 0;
+            while (finished < ranked.size()) {
+                Future<DollarRate> done = futures.size() < ranked.size()
+                        ? completion.poll(this.hedgeDelayMillis, TimeUnit.MILLISECONDS)
+                        : completion.take();
+
+                if (done == null) {
+                    ProviderHealth hedge = ranked.get(futures.size());
+                    LOGGER.info("[{}] No dollar rate after {} ms, hedging with {}", requestId, this.hedgeDelayMillis,
+                            hedge);
+                    futures.add(completion.submit(() -> this.fetch(requestId, hedge)));
+                    continue;
+                }
+
+                finished++;
+                try {
+                    return done.get();
+                } catch (ExecutionException e) {
+                    lastFailure = e.getCause();
+                    if (futures.size() < ranked.size()) {
+                        ProviderHealth fallback = ranked.get(futures.size());
+                        futures.add(completion.submit(() -> this.fetch(requestId, fallback)));
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DollarException("Interrupted while fetching Dollar Exchange Rate.", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        throw new DollarException("Every dollar provider failed to fetch the Dollar Exchange Rate.", lastFailure);
+    }
+
+    private DollarRate fetch(String requestId, ProviderHealth provider) {
+        long start = System.nanoTime();
+        try {
+            DollarRate rate = this.normalise(provider.service.getDollarExchangeRate(requestId));
+            provider.recordSuccess(Duration.ofNanos(System.nanoTime() - start).toMillis());
+            LOGGER.info("[{}] Dollar rate {} from {} (p50: {} ms, p90: {} ms, error rate: {})", requestId, rate,
+                    provider, provider.percentile(0.5), provider.percentile(0.9),
+                    String.format("%.2f", provider.errorRate()));
+            return rate;
+        } catch (RuntimeException e) {
+            if (!isInterruption(e)) {
+                provider.recordFailure(Duration.ofNanos(System.nanoTime() - start).toMillis());
+            }
+            throw e;
+        }
+    }
+
+    private DollarRate normalise(DollarRate dollarExchangeRate) {
+        DollarRate rate = dollarExchangeRate.withDecimals(this.dollarRateDecimals);
+        if (rate.tenThousandths() <= 0) {
+            throw new DollarException("Invalid Dollar Exchange Rate: " + dollarExchangeRate);
+        }
+        return rate;
+    }
+
+    private static boolean isInterruption(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class ProviderHealth {
+        private final String name;
+        private final IDollarService service;
+        private final long[] latencies = new long[LATENCY_SAMPLES];
+        private int samples;
+        private double errorRate;
+
+        private ProviderHealth(String name, IDollarService service) {
+            this.name = name;
+            this.service = service;
+        }
+
+        private synchronized void recordSuccess(long latencyMillis) {
+            this.addLatency(latencyMillis);
+            this.errorRate = (1 - ERROR_RATE_SMOOTHING) * this.errorRate;
+        }
+
+        private synchronized void recordFailure(long latencyMillis) {
+            this.addLatency(latencyMillis);
+            this.errorRate = ERROR_RATE_SMOOTHING + (1 - ERROR_RATE_SMOOTHING) * this.errorRate;
+        }
+
+        private void addLatency(long latencyMillis) {
+            this.latencies[this.samples % LATENCY_SAMPLES] = latencyMillis;
+            this.samples++;
+        }
+
+        private synchronized long percentile(double percentile) {
+            int count = Math.min(this.samples, LATENCY_SAMPLES);
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(this.latencies, count);
+            Arrays.sort(sorted);
+            return sorted[(int) Math.ceil(percentile * count) - 1];
+        }
+
+        private synchronized double errorRate() {
+            return this.errorRate;
+        }
+
+        private double score() {
+            double errorRate = this.errorRate();
+            return this.percentile(0.9) * (1 + 4 * errorRate) + 1000 * errorRate;
+        }
+
+        @Override
+        public String toString() {
+            return this.name;
+        }
+    }
+}
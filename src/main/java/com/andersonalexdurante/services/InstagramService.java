@@ -1,10 +1,14 @@
 package com.andersonalexdurante.services;
 
+import com.andersonalexdurante.dto.Channel;
 import com.andersonalexdurante.dto.CreateMediaContainerDTO;
 import com.andersonalexdurante.dto.PublishMediaContainerDTO;
+import com.andersonalexdurante.exceptions.CircuitOpenException;
 import com.andersonalexdurante.exceptions.InstagramApiException;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.core.MediaType;
@@ -12,41 +16,106 @@ import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URL;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
-import java.util.stream.IntStream;
+import java.time.Instant;
 
 @ApplicationScoped
 public class InstagramService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(InstagramService.class);
-    private static final String INSTAGRAM_ACCESS_TOKEN_PARAMETER = "instagram_access_token";
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int GRAPH_API_INVALID_TOKEN_ERROR_CODE = 190;
+    @Inject
+    ObjectMapper objectMapper;
     @ConfigProperty(name = "INSTAGRAM_GRAPH_API_URL")
     String instagramGraphApiUrl;
-    @ConfigProperty(name = "INSTAGRAM_POKEDOLAR_USERID")
-    String instagramPokedolarUserId;
+    @ConfigProperty(name = "INSTAGRAM_PUBLISH_LIMIT_PER_DAY", defaultValue = "50")
+    int publishLimitPerDay;
 
     @Inject
     SsmService ssmService;
 
-    public void post(String requestId, int pokedexNumber, URL postVideoUrl, String postCaption) {
-        LOGGER.info("[{}] Starting Instagram post... Pokemon: #{}", requestId, pokedexNumber);
+    @ConfigProperty(name = "INSTAGRAM_MEDIA_POLLING_INITIAL_DELAY_MS", defaultValue = "2000")
+    long mediaPollingInitialDelayMillis;
+    @ConfigProperty(name = "INSTAGRAM_MEDIA_POLLING_MAX_DELAY_MS", defaultValue = "15000")
+    long mediaPollingMaxDelayMillis;
+    @ConfigProperty(name = "INSTAGRAM_MEDIA_POLLING_BACKOFF_MULTIPLIER", defaultValue = "1.6")
+    double mediaPollingBackoffMultiplier;
+    @ConfigProperty(name = "INSTAGRAM_MEDIA_POLLING_BUDGET_SECONDS", defaultValue = "150")
+    long mediaPollingBudgetSeconds;
+    @ConfigProperty(name = "INSTAGRAM_MEDIA_READY_ESTIMATE_MS", defaultValue = "0")
+    long mediaReadyEstimateMillis;
+
+    @Inject
+    OutboundHttpClient outboundHttpClient;
+    @Inject
+    MetricsService metricsService;
+
+    private AdaptivePollingSchedule mediaReadySchedule;
+
+    @PostConstruct
+    void initMediaReadySchedule() {
+        this.mediaReadySchedule = new AdaptivePollingSchedule(Duration.ofMillis(this.mediaPollingInitialDelayMillis),
+                Duration.ofMillis(this.mediaPollingMaxDelayMillis), this.mediaPollingBackoffMultiplier,
+                Duration.ofMillis(this.mediaReadyEstimateMillis));
+    }
+
+    public String createContainer(String requestId, Channel channel, int pokedexNumber, URL postVideoUrl,
+                                  String postCaption) {
+        LOGGER.info("[{}] Starting Instagram post on {}... Pokemon: #{}", requestId, channel.id(), pokedexNumber);
+        String accessToken = this.ssmService.getStringParameterWithDecryption(requestId,
+                channel.accessTokenParameter());
+        return this.metricsService.time(requestId, "instagram.create", () ->
+                this.createMediaContainer(requestId, channel, postVideoUrl, postCaption, pokedexNumber,
+                        accessToken));
+    }
+
+    /**
+     * Whether a container created by an earlier run can still be published (or already was), so a resumed run
+     * does not need to create a new one.
+     */
+    public boolean isContainerReusable(String requestId, Channel channel, String idMediaContainer) {
+        try {
+            String accessToken = this.ssmService.getStringParameterWithDecryption(requestId,
+                    channel.accessTokenParameter());
+            String status = this.getMediaStatus(requestId, idMediaContainer, accessToken);
+            LOGGER.info("[{}] Existing media container {} has status {}", requestId, idMediaContainer, status);
+            return !status.isEmpty() && !"ERROR".equalsIgnoreCase(status) && !"EXPIRED".equalsIgnoreCase(status);
+        } catch (Exception e) {
+            LOGGER.warn("[{}] Could not check media container {}: {}", requestId, idMediaContainer, e.getMessage());
+            return false;
+        }
+    }
+
+    public String publishWhenReady(String requestId, Channel channel, String idMediaContainer, Instant deadline) {
         try {
-            String accessToken = this.ssmService.getStringParameterWithDecryption(requestId, INSTAGRAM_ACCESS_TOKEN_PARAMETER);
-            String idMediaContainer = this.createMediaContainer(requestId, postVideoUrl, postCaption, pokedexNumber, accessToken);
+            String accessToken = this.ssmService.getStringParameterWithDecryption(requestId,
+                    channel.accessTokenParameter());
 
-            boolean ready = this.waitUntilMediaIsReady(requestId, idMediaContainer, accessToken);
-            if (!ready) {
+            String status = this.metricsService.time(requestId, "instagram.poll", () ->
+                    this.waitUntilMediaIsReady(requestId, idMediaContainer, accessToken, deadline));
+            if (status == null) {
                 throw new InstagramApiException("Media is not ready after waiting. Aborting publish.");
             }
+            if ("PUBLISHED".equalsIgnoreCase(status)) {
+                LOGGER.info("[{}] Media container {} was already published", requestId, idMediaContainer);
+                return idMediaContainer;
+            }
+            // the account's quota is tracked by Instagram; a local counter would reset with every cold start
+            if (!this.hasPublishingQuota(requestId, channel, accessToken)) {
+                // the container stays checkpointed and is published by a later run once the quota frees up
+                this.metricsService.increment(requestId, "skip.publish-limit");
+                throw new InstagramApiException("Publishing limit reached for account " + channel.instagramUserId());
+            }
 
-            String idPublishedContainer = this.publishMediaContainer(requestId, idMediaContainer, accessToken);
+            String idPublishedContainer = this.metricsService.time(requestId, "instagram.publish", () ->
+                    this.publishMediaContainer(requestId, channel, idMediaContainer, accessToken));
             LOGGER.info("[{}] Pokemon video posted successfully! ID: {}", requestId, idPublishedContainer);
+            return idPublishedContainer;
         } catch (Exception e) {
             LOGGER.error("[{}] Error while posting video to Instagram!", requestId, e);
             throw new InstagramApiException("Error while posting video to Instagram.", e);
@@ -54,22 +123,22 @@ public class InstagramService {
     }
 
 
-    private String createMediaContainer(String requestId, URL postVideoUrl, String postCaption,
+    private String createMediaContainer(String requestId, Channel channel, URL postVideoUrl, String postCaption,
                                         int pokedexNumber, String accessToken) {
         try {
-            CreateMediaContainerDTO createMediaContainerDTO =
-                    new CreateMediaContainerDTO(postVideoUrl.toString(), postCaption);
-
             LOGGER.info("[{}] Creating Media Container for Pokemon #{}...", requestId, pokedexNumber);
 
-            URI createMediaContainerUri = URI.create(this.instagramGraphApiUrl + this.instagramPokedolarUserId
+            URI createMediaContainerUri = URI.create(this.instagramGraphApiUrl + channel.instagramUserId()
                     + "/media" + "?access_token=" + accessToken);
 
-            HttpResponse<String> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder()
+            String body = this.createMediaContainerBody(postVideoUrl, postCaption);
+            this.metricsService.gauge(requestId, "payload.instagram-container", body.length(), MetricsService.BYTES);
+
+            HttpResponse<String> response = this.outboundHttpClient.send(requestId, HttpRequest.newBuilder()
                     .header("Content-Type", MediaType.APPLICATION_JSON)
                     .uri(createMediaContainerUri)
-                    .POST(HttpRequest.BodyPublishers.ofString(this.objectMapper.writeValueAsString(createMediaContainerDTO)))
-                    .build(), HttpResponse.BodyHandlers.ofString());
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build());
 
             if (response.statusCode() == 200) {
                 JsonNode rootNode = this.objectMapper.readTree(response.body());
@@ -78,6 +147,7 @@ public class InstagramService {
                 return id;
             }
 
+            this.invalidateAccessTokenOnAuthError(requestId, channel, response);
             LOGGER.error("[{}] Failed to create media container. HTTP status: {}", requestId, response.statusCode());
             throw new InstagramApiException("Failed to create media container. HTTP status: " + response.statusCode());
         } catch (Exception ex) {
@@ -86,20 +156,19 @@ public class InstagramService {
         }
     }
 
-    private String publishMediaContainer(String requestId, String idMediaContainer, String accessToken) {
+    private String publishMediaContainer(String requestId, Channel channel, String idMediaContainer,
+                                         String accessToken) {
         try {
-            PublishMediaContainerDTO publishMediaContainerDTO = new PublishMediaContainerDTO(idMediaContainer);
-
             LOGGER.info("[{}] Publishing Media Container ID: {}...", requestId, idMediaContainer);
 
-            URI publishMediaUri = URI.create(this.instagramGraphApiUrl + this.instagramPokedolarUserId
+            URI publishMediaUri = URI.create(this.instagramGraphApiUrl + channel.instagramUserId()
                     + "/media_publish" + "?access_token=" + accessToken);
 
-            HttpResponse<String> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder()
+            HttpResponse<String> response = this.outboundHttpClient.send(requestId, HttpRequest.newBuilder()
                     .header("Content-Type", MediaType.APPLICATION_JSON)
                     .uri(publishMediaUri)
-                    .POST(HttpRequest.BodyPublishers.ofString(this.objectMapper.writeValueAsString(publishMediaContainerDTO)))
-                    .build(), HttpResponse.BodyHandlers.ofString());
+                    .POST(HttpRequest.BodyPublishers.ofString(this.publishMediaContainerBody(idMediaContainer)))
+                    .build());
 
             if (response.statusCode() == 200) {
                 JsonNode rootNode = this.objectMapper.readTree(response.body());
@@ -108,6 +177,7 @@ public class InstagramService {
                 return id;
             }
 
+            this.invalidateAccessTokenOnAuthError(requestId, channel, response);
             LOGGER.error("[{}] Failed to publish media container. HTTP status: {}", requestId, response.statusCode());
             throw new InstagramApiException("Failed to publish media container. HTTP status: " + response.statusCode());
         } catch (Exception ex) {
@@ -116,11 +186,55 @@ public class InstagramService {
         }
     }
 
-    private boolean waitUntilMediaIsReady(String requestId, String mediaId, String accessToken) {
-        final int maxAttempts = 10;
-        final Duration delay = Duration.ofSeconds(15);
-        final HttpClient client = HttpClient.newHttpClient();
+    String createMediaContainerBody(URL postVideoUrl, String postCaption) throws JsonProcessingException {
+        return this.objectMapper.writeValueAsString(new CreateMediaContainerDTO(postVideoUrl.toString(), postCaption));
+    }
+
+    String publishMediaContainerBody(String idMediaContainer) throws JsonProcessingException {
+        return this.objectMapper.writeValueAsString(new PublishMediaContainerDTO(idMediaContainer));
+    }
 
+    private boolean hasPublishingQuota(String requestId, Channel channel, String accessToken) {
+        URI publishingLimitUri = URI.create(this.instagramGraphApiUrl + channel.instagramUserId()
+                + "/content_publishing_limit?fields=quota_usage,config&access_token=" + accessToken);
+        try {
+            HttpResponse<String> response = this.outboundHttpClient.send(requestId, HttpRequest.newBuilder()
+                    .uri(publishingLimitUri)
+                    .timeout(Duration.ofSeconds(10))
+                    .GET()
+                    .build());
+            JsonNode limit = this.objectMapper.readTree(response.body()).path("data").path(0);
+            if (response.statusCode() != 200 || limit.isMissingNode()) {
+                return true;
+            }
+            int usage = limit.path("quota_usage").asInt();
+            int total = limit.path("config").path("quota_total").asInt(this.publishLimitPerDay);
+            LOGGER.info("[{}] Publishing quota of account {}: {} of {} used", requestId, channel.instagramUserId(),
+                    usage, total);
+            return usage < total;
+        } catch (IOException e) {
+            LOGGER.warn("[{}] Could not check publishing quota: {}", requestId, e.getMessage());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true;
+        }
+    }
+
+    private void invalidateAccessTokenOnAuthError(String requestId, Channel channel, HttpResponse<String> response) {
+        int errorCode;
+        try {
+            errorCode = this.objectMapper.readTree(response.body()).path("error").path("code").asInt();
+        } catch (IOException e) {
+            errorCode = 0;
+        }
+        if (response.statusCode() == 401 || errorCode == GRAPH_API_INVALID_TOKEN_ERROR_CODE) {
+            this.ssmService.invalidate(requestId, channel.accessTokenParameter());
+        }
+    }
+
+    private String getMediaStatus(String requestId, String mediaId, String accessToken)
+            throws IOException, InterruptedException {
         URI verifyMediaStatus = URI.create(this.instagramGraphApiUrl + mediaId + "?fields=status_code" +
                 "&access_token=" + accessToken);
 
@@ -130,31 +244,85 @@ public class InstagramService {
                 .GET()
                 .build();
 
-        return IntStream.range(0, maxAttempts)
-                .mapToObj(attempt -> {
-                    try {
-                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-                        String status = objectMapper.readTree(response.body()).path("status_code").asText();
-
-                        LOGGER.info("[{}] Attempt {}/{} - Media status for ID {}: {}", requestId, attempt + 1,
-                                maxAttempts, mediaId, status);
-
-                        if ("FINISHED".equalsIgnoreCase(status)) return true;
-
-                        Thread.sleep(delay.toMillis());
-                    } catch (Exception e) {
-                        LOGGER.warn("[{}] Attempt {}/{} - Error checking media status: {}", requestId, attempt + 1,
-                                maxAttempts, e.getMessage());
-                        try {
-                            Thread.sleep(delay.toMillis());
-                        } catch (InterruptedException ie) {
-                            Thread.currentThread().interrupt();
-                            return false;
-                        }
-                    }
-                    return false;
-                })
-                .anyMatch(ready -> ready);
+        HttpResponse<String> response = this.outboundHttpClient.send(requestId, request);
+        if (response.statusCode() != 200) {
+            throw new IOException("Media status request failed. HTTP status: " + response.statusCode());
+        }
+        return this.objectMapper.readTree(response.body()).path("status_code").asText();
+    }
+
+    private static boolean sleepUntil(Instant instant) {
+        try {
+            Duration wait = Duration.between(Instant.now(), instant);
+            if (wait.isPositive()) {
+                Thread.sleep(wait.toMillis());
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private String waitUntilMediaIsReady(String requestId, String mediaId, String accessToken, Instant deadline) {
+        Instant start = Instant.now();
+        Instant pollingDeadline = start.plus(Duration.ofSeconds(this.mediaPollingBudgetSeconds));
+        if (deadline.isBefore(pollingDeadline)) {
+            pollingDeadline = deadline;
+        }
+
+        for (int attempt = 0; ; attempt++) {
+            Duration remaining = Duration.between(Instant.now(), pollingDeadline);
+            if (remaining.isNegative() || remaining.isZero()) {
+                LOGGER.warn("[{}] Polling budget exhausted after {} attempts for media ID {}", requestId, attempt,
+                        mediaId);
+                return null;
+            }
+
+            Duration delay = this.mediaReadySchedule.nextDelay(attempt, Duration.between(start, Instant.now()),
+                    remaining);
+            if (attempt > 0) {
+                this.metricsService.increment(requestId, "retry.instagram-status");
+            }
+            try {
+                Thread.sleep(delay.toMillis());
+
+                String status = this.getMediaStatus(requestId, mediaId, accessToken);
+                Duration elapsed = Duration.between(start, Instant.now());
+
+                LOGGER.info("[{}] Attempt {} ({} ms elapsed) - Media status for ID {}: {}", requestId, attempt + 1,
+                        elapsed.toMillis(), mediaId, status);
+
+                if ("FINISHED".equalsIgnoreCase(status)) {
+                    this.mediaReadySchedule.recordCompletion(elapsed);
+                    LOGGER.info("[{}] Media ready after {} ms. Expected processing time is now {} ms", requestId,
+                            elapsed.toMillis(), this.mediaReadySchedule.estimatedCompletion().toMillis());
+                    return status;
+                }
+                if ("PUBLISHED".equalsIgnoreCase(status)) {
+                    return status;
+                }
+                if ("ERROR".equalsIgnoreCase(status) || "EXPIRED".equalsIgnoreCase(status)) {
+                    throw new InstagramApiException("Media container " + mediaId + " finished with status " + status);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (CircuitOpenException e) {
+                if (!e.getRetryAt().isBefore(pollingDeadline)) {
+                    LOGGER.warn("[{}] Graph API unavailable until {}, past the polling deadline. Giving up on media "
+                            + "ID {}", requestId, e.getRetryAt(), mediaId);
+                    return null;
+                }
+                LOGGER.info("[{}] Graph API unavailable until {}, pausing status checks", requestId, e.getRetryAt());
+                if (!sleepUntil(e.getRetryAt())) {
+                    return null;
+                }
+            } catch (IOException e) {
+                LOGGER.warn("[{}] Attempt {} - Error checking media status: {}", requestId, attempt + 1,
+                        e.getMessage());
+            }
+        }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,202 @@
+package com.andersonalexdurante.services;
+
+import com.andersonalexdurante.pipeline.StageListener;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Collects the latencies, counters and gauges of a run (keyed by request id) and writes them, when the run
+ * ends, as one CloudWatch Embedded Metric Format line on the {@code pokedolar.metrics} logger. CloudWatch
+ * extracts the metrics from the Lambda log stream; locally the lines go to the metrics log file. Recordings
+ * that arrive after their run was flushed (background work outliving it) are dropped, so a long-running
+ * process does not keep them forever.
+ */
+@ApplicationScoped
+public class MetricsService {
+
+    public static final String BYTES = "Bytes";
+    public static final String COUNT = "Count";
+    public static final String PERCENT = "Percent";
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetricsService.class);
+    private static final Logger METRICS_LOGGER = LoggerFactory.getLogger("pokedolar.metrics");
+    private static final int MAX_METRICS_PER_LINE = 100;
+    private static final int MAX_VALUES_PER_METRIC = 100;
+    private static final int MAX_FLUSHED_RUNS = 1000;
+    private static final RunMetrics DISCARDED = new RunMetrics(true);
+    private static final String MILLISECONDS = "Milliseconds";
+
+    @ConfigProperty(name = "METRICS_ENABLED", defaultValue = "true")
+    boolean metricsEnabled;
+
+    @ConfigProperty(name = "METRICS_NAMESPACE", defaultValue = "PokeDolar")
+    String metricsNamespace;
+
+    @Inject
+    ObjectMapper objectMapper;
+    private final Map<String, RunMetrics> runs = new ConcurrentHashMap<>();
+    private final Set<String> flushedRuns = Collections.newSetFromMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return this.size() > MAX_FLUSHED_RUNS;
+        }
+    });
+
+    public void recordLatency(String requestId, String name, Duration duration) {
+        this.run(requestId).add(name, MILLISECONDS, duration.toNanos() / 1_000_000.0);
+    }
+
+    public <T> T time(String requestId, String name, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            this.recordLatency(requestId, name, Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    public void increment(String requestId, String name) {
+        this.increment(requestId, name, 1);
+    }
+
+    public void increment(String requestId, String name, double amount) {
+        this.run(requestId).sum(name, COUNT, amount);
+    }
+
+    public void gauge(String requestId, String name, double value, String unit) {
+        this.run(requestId).set(name, unit, value);
+    }
+
+    public StageListener stageListener(String requestId) {
+        return (stage, duration, failure) -> {
+            this.recordLatency(requestId, "stage." + stage.name(), duration);
+            if (failure != null) {
+                this.increment(requestId, "failure." + stage.name());
+            }
+        };
+    }
+
+    public void flush(String requestId, String mode) {
+        RunMetrics run;
+        synchronized (this.flushedRuns) {
+            this.flushedRuns.add(requestId);
+            run = this.runs.remove(requestId);
+        }
+        if (run == null || !this.metricsEnabled) {
+            return;
+        }
+
+        ObjectNode line = this.objectMapper.createObjectNode();
+        ObjectNode directive = line.putObject("_aws")
+                .put("Timestamp", System.currentTimeMillis())
+                .putArray("CloudWatchMetrics")
+                .addObject()
+                .put("Namespace", this.metricsNamespace);
+        directive.putArray("Dimensions").addArray().add("Mode");
+        ArrayNode definitions = directive.putArray("Metrics");
+        line.put("Mode", mode);
+        line.put("requestId", requestId);
+
+        run.forEach((name, metric) -> {
+            if (definitions.size() >= MAX_METRICS_PER_LINE) {
+                LOGGER.warn("[{}] Metric {} dropped, EMF allows {} metrics per line", requestId, name,
+                        MAX_METRICS_PER_LINE);
+                return;
+            }
+            definitions.addObject().put("Name", name).put("Unit", metric.unit);
+            if (metric.values.size() == 1) {
+                line.put(name, metric.values.getFirst());
+            } else {
+                ArrayNode values = line.putArray(name);
+                metric.values.stream().limit(MAX_VALUES_PER_METRIC).forEach(values::add);
+            }
+        });
+
+        try {
+            METRICS_LOGGER.info(this.objectMapper.writeValueAsString(line));
+        } catch (JsonProcessingException e) {
+            LOGGER.warn("[{}] Failed to serialise metrics: {}", requestId, e.getMessage());
+        }
+    }
+
+    private RunMetrics run(String requestId) {
+        RunMetrics run = this.runs.get(requestId);
+        if (run != null) {
+            return run;
+        }
+        synchronized (this.flushedRuns) {
+            if (this.flushedRuns.contains(requestId)) {
+                LOGGER.debug("[{}] Run already flushed, dropping late metric", requestId);
+                return DISCARDED;
+            }
+            return this.runs.computeIfAbsent(requestId, id -> new RunMetrics(false));
+        }
+    }
+
+    private static final class RunMetrics {
+        private final Map<String, Metric> metrics = new LinkedHashMap<>();
+        private final boolean discarding;
+
+        private RunMetrics(boolean discarding) {
+            this.discarding = discarding;
+        }
+
+        synchronized void add(String name, String unit, double value) {
+            if (this.discarding) {
+                return;
+            }
+            this.metrics.computeIfAbsent(name, key -> new Metric(unit)).values.add(value);
+        }
+
+        synchronized void sum(String name, String unit, double value) {
+            if (this.discarding) {
+                return;
+            }
+            Metric metric = this.metrics.computeIfAbsent(name, key -> new Metric(unit));
+            if (metric.values.isEmpty()) {
+                metric.values.add(value);
+            } else {
+                metric.values.set(0, metric.values.getFirst() + value);
+            }
+        }
+
+        synchronized void set(String name, String unit, double value) {
+            if (this.discarding) {
+                return;
+            }
+            Metric metric = this.metrics.computeIfAbsent(name, key -> new Metric(unit));
+            metric.values.clear();
+            metric.values.add(value);
+        }
+
+        synchronized void forEach(BiConsumer<String, Metric> action) {
+            this.metrics.forEach(action);
+        }
+    }
+
+    private static final class Metric {
+        private final String unit;
+        private final List<Double> values = new ArrayList<>();
+
+        private Metric(String unit) {
+            this.unit = unit;
+        }
+    }
+}
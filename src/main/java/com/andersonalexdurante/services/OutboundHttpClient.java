@@ -0,0 +1,525 @@
+package com.andersonalexdurante.services;
+
+import com.andersonalexdurante.dto.HttpHostStats;
+import com.andersonalexdurante.exceptions.CircuitOpenException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+@ApplicationScoped
+public class OutboundHttpClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboundHttpClient.class);
+
+    @ConfigProperty(name = "HTTP_CONNECT_TIMEOUT_MS", defaultValue = "5000")
+    long connectTimeoutMillis;
+
+    @ConfigProperty(name = "HTTP_READ_TIMEOUT_MS", defaultValue = "30000")
+    long readTimeoutMillis;
+
+    @ConfigProperty(name = "HTTP_MAX_CONCURRENT_REQUESTS_PER_HOST", defaultValue = "8")
+    int maxConcurrentRequestsPerHost;
+
+    // per endpoint (host and path, ids collapsed), so polling one endpoint does not starve the others
+    @ConfigProperty(name = "HTTP_RATE_LIMIT_PER_SECOND", defaultValue = "5")
+    double rateLimitPerSecond;
+
+    @ConfigProperty(name = "HTTP_RATE_LIMIT_BURST", defaultValue = "5")
+    int rateLimitBurst;
+
+    @ConfigProperty(name = "HTTP_CIRCUIT_FAILURE_THRESHOLD", defaultValue = "5")
+    int circuitFailureThreshold;
+
+    @ConfigProperty(name = "HTTP_CIRCUIT_OPEN_SECONDS", defaultValue = "30")
+    long circuitOpenSeconds;
+
+    @ConfigProperty(name = "HTTP_RETRY_AFTER_MAX_SECONDS", defaultValue = "900")
+    long retryAfterMaxSeconds;
+
+    // host=connect:<ms>,read:<ms>,max:<n>,rps:<n>,burst:<n>,failures:<n>,open:<s>;other.host=read:<ms>
+    @ConfigProperty(name = "HTTP_HOST_OVERRIDES")
+    Optional<String> hostOverrides;
+
+    @Inject
+    ObjectMapper objectMapper;
+    @Inject
+    MetricsService metricsService;
+    @Inject
+    DynamoDBService dynamoDBService;
+
+    private final Map<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * Builds a client outside CDI, for build-time tools, with the defaults of the configuration properties,
+     * metrics that are never flushed and circuits that are not persisted.
+     */
+    public static OutboundHttpClient standalone(ObjectMapper objectMapper) {
+        MetricsService metricsService = new MetricsService();
+        metricsService.objectMapper = objectMapper;
+
+        OutboundHttpClient client = new OutboundHttpClient();
+        client.connectTimeoutMillis = 5_000;
+        client.readTimeoutMillis = 30_000;
+        client.maxConcurrentRequestsPerHost = 8;
+        client.rateLimitPerSecond = 5;
+        client.rateLimitBurst = 5;
+        client.circuitFailureThreshold = 5;
+        client.circuitOpenSeconds = 30;
+        client.retryAfterMaxSeconds = 900;
+        client.hostOverrides = Optional.empty();
+        client.objectMapper = objectMapper;
+        client.metricsService = metricsService;
+        return client;
+    }
+
+    public HttpResponse<String> send(String requestId, HttpRequest request) throws IOException, InterruptedException {
+        HostState host = this.getHost(requestId, request.uri().getHost());
+        this.admit(requestId, host, request.uri());
+
+        long start = System.nanoTime();
+        boolean recorded = false;
+        boolean abandoned = false;
+        try {
+            host.requests.increment();
+            HttpResponse<String> response = host.client.send(this.prepare(host, request), responseInfo ->
+                    HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), body -> {
+                        host.bytesReceived.add(body.length);
+                        return decode(body, responseInfo.headers().firstValue("Content-Encoding").orElse(""));
+                    }));
+            recorded = true;
+            this.recordStatus(requestId, request, host, response);
+            return response;
+        } catch (InterruptedException e) {
+            abandoned = true;
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            host.failures.increment();
+            throw e;
+        } finally {
+            this.recordUnanswered(requestId, host, recorded, abandoned);
+            host.totalLatencyMillis.add(Duration.ofNanos(System.nanoTime() - start).toMillis());
+            host.permits.release();
+        }
+    }
+
+    /**
+     * Sends the request and hands the (already decompressed) body to the reader as it arrives, so large documents
+     * never have to be held in memory as a whole. The host permit is held until the reader returns.
+     */
+    public <T> T sendStreaming(String requestId, HttpRequest request, ResponseBodyReader<T> reader)
+            throws IOException, InterruptedException {
+        HostState host = this.getHost(requestId, request.uri().getHost());
+        this.admit(requestId, host, request.uri());
+
+        long start = System.nanoTime();
+        boolean recorded = false;
+        boolean abandoned = false;
+        try {
+            host.requests.increment();
+            HttpResponse<InputStream> response = host.client.send(this.prepare(host, request),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            recorded = true;
+            this.recordStatus(requestId, request, host, response);
+            try (InputStream body = decode(new CountingInputStream(response.body(), host.bytesReceived),
+                    response.headers().firstValue("Content-Encoding").orElse(""))) {
+                return reader.read(response.statusCode(), body);
+            }
+        } catch (InterruptedException e) {
+            abandoned = true;
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            host.failures.increment();
+            throw e;
+        } finally {
+            this.recordUnanswered(requestId, host, recorded, abandoned);
+            host.totalLatencyMillis.add(Duration.ofNanos(System.nanoTime() - start).toMillis());
+            host.permits.release();
+        }
+    }
+
+    /**
+     * Opens (or reuses) the connection to the host of the given URI with a HEAD request, so the TLS handshake
+     * and HTTP/2 negotiation do not happen on the first real call. Failures are only logged.
+     */
+    public void prime(String requestId, URI uri) {
+        try {
+            HttpResponse<String> response = this.send(requestId, HttpRequest.newBuilder(uri)
+                    .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                    .build());
+            LOGGER.debug("[{}] Primed connection to {} (HTTP {})", requestId, uri.getHost(), response.statusCode());
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("[{}] Failed to prime connection to {}: {}", requestId, uri.getHost(), e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Closes every client and its pooled connections. The next request to a host builds a new client, which is
+     * what a restored snapshot needs, as connections captured in it are no longer valid.
+     */
+    public void reset() {
+        this.hosts.values().forEach(host -> host.client.shutdownNow());
+        this.hosts.clear();
+    }
+
+    public List<HttpHostStats> getHostStats() {
+        return this.hosts.values().stream()
+                .map(HostState::toStats)
+                .sorted(Comparator.comparing(HttpHostStats::host))
+                .toList();
+    }
+
+    private HostState getHost(String requestId, String hostName) {
+        HostState host = this.hosts.get(hostName);
+        if (host != null) {
+            return host;
+        }
+        HostState created = this.createHost(hostName);
+        HostState existing = this.hosts.putIfAbsent(hostName, created);
+        if (existing != null) {
+            created.client.shutdownNow();
+            return existing;
+        }
+        // outside the map's lock, as it reads DynamoDB
+        this.restoreCircuit(requestId, created);
+        return created;
+    }
+
+    /**
+     * Counts a call that got no response as a failure of the upstream, unless it was interrupted or cancelled
+     * (a lost hedge is cancelled with an interrupt), which says nothing about the upstream's health.
+     */
+    private void recordUnanswered(String requestId, HostState host, boolean recorded, boolean abandoned) {
+        if (recorded) {
+            return;
+        }
+        if (abandoned || Thread.currentThread().isInterrupted()) {
+            host.circuitBreaker.recordAbandoned();
+            return;
+        }
+        host.circuitBreaker.recordFailure();
+        this.persistCircuit(requestId, host);
+    }
+
+    /**
+     * An open circuit is kept in the Bedrock cache table until it closes again, so the next trigger, which
+     * usually runs in a new container, keeps failing fast instead of hitting the upstream again.
+     */
+    private void restoreCircuit(String requestId, HostState host) {
+        if (this.dynamoDBService == null) {
+            return;
+        }
+        this.dynamoDBService.getCachedValue(requestId, circuitKey(host.name))
+                .map(Instant::parse)
+                .filter(openUntil -> openUntil.isAfter(Instant.now()))
+                .ifPresent(openUntil -> {
+                    host.circuitBreaker.openUntil(openUntil);
+                    host.persistedOpenUntil = openUntil;
+                    LOGGER.warn("[{}] Circuit for {} left open by a previous run until {}", requestId, host.name,
+                            openUntil);
+                });
+    }
+
+    private void persistCircuit(String requestId, HostState host) {
+        if (this.dynamoDBService == null || host.circuitBreaker.state() != CircuitBreaker.State.OPEN) {
+            return;
+        }
+        Instant openUntil = host.circuitBreaker.retryAt();
+        synchronized (host) {
+            if (!openUntil.isAfter(host.persistedOpenUntil)) {
+                return;
+            }
+            host.persistedOpenUntil = openUntil;
+        }
+        this.dynamoDBService.saveCachedValue(requestId, circuitKey(host.name), openUntil.toString());
+    }
+
+    private static String circuitKey(String hostName) {
+        return "circuit#" + hostName;
+    }
+
+    /**
+     * Rate limits apply per endpoint: the host and path with numeric (id) segments collapsed, so every media
+     * container or Pokemon shares the bucket of its endpoint.
+     */
+    private static String endpointKey(URI uri) {
+        String path = uri.getPath() == null ? "" : uri.getPath().replaceAll("/\\d+(?=/|$)", "/{id}");
+        return uri.getHost() + path;
+    }
+
+    private HostState createHost(String hostName) {
+        long connectTimeout = this.connectTimeoutMillis;
+        long readTimeout = this.readTimeoutMillis;
+        int maxConcurrentRequests = this.maxConcurrentRequestsPerHost;
+        double permitsPerSecond = this.rateLimitPerSecond;
+        int burst = this.rateLimitBurst;
+        int failureThreshold = this.circuitFailureThreshold;
+        long openSeconds = this.circuitOpenSeconds;
+
+        for (String override : this.hostOverrides.orElse("").split(";")) {
+            String[] hostAndSettings = override.split("=", 2);
+            if (hostAndSettings.length != 2 || !hostAndSettings[0].trim().equalsIgnoreCase(hostName)) {
+                continue;
+            }
+            for (String setting : hostAndSettings[1].split(",")) {
+                String[] keyAndValue = setting.split(":", 2);
+                switch (keyAndValue[0].trim()) {
+                    case "connect" -> connectTimeout = Long.parseLong(keyAndValue[1].trim());
+                    case "read" -> readTimeout = Long.parseLong(keyAndValue[1].trim());
+                    case "max" -> maxConcurrentRequests = Integer.parseInt(keyAndValue[1].trim());
+                    case "rps" -> permitsPerSecond = Double.parseDouble(keyAndValue[1].trim());
+                    case "burst" -> burst = Integer.parseInt(keyAndValue[1].trim());
+                    case "failures" -> failureThreshold = Integer.parseInt(keyAndValue[1].trim());
+                    case "open" -> openSeconds = Long.parseLong(keyAndValue[1].trim());
+                    default -> LOGGER.warn("Unknown HTTP setting '{}' for host {}", keyAndValue[0], hostName);
+                }
+            }
+        }
+
+        LOGGER.info("Creating HTTP client for host {} (connect: {} ms, read: {} ms, max concurrent: {}, rate: {}/s, "
+                        + "circuit: {} failures / {} s)", hostName, connectTimeout, readTimeout, maxConcurrentRequests,
+                permitsPerSecond > 0 ? permitsPerSecond : "unlimited", failureThreshold, openSeconds);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeout))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        return new HostState(hostName, client, Duration.ofMillis(readTimeout), maxConcurrentRequests,
+                permitsPerSecond, burst, new CircuitBreaker(failureThreshold, Duration.ofSeconds(openSeconds)));
+    }
+
+    /**
+     * Waits for a token of the endpoint's rate limit and a concurrency permit of the host, then rejects the call
+     * (releasing the permit) while the host's circuit is open. The circuit is asked last: once it grants a
+     * half-open trial, nothing can fail before the call whose outcome it waits for is made.
+     */
+    private void admit(String requestId, HostState host, URI uri) throws CircuitOpenException, InterruptedException {
+        TokenBucket rateLimiter = host.rateLimiter(endpointKey(uri));
+        if (rateLimiter != null) {
+            long start = System.nanoTime();
+            rateLimiter.acquire();
+            Duration waited = Duration.ofNanos(System.nanoTime() - start);
+            if (waited.toMillis() > 0) {
+                this.metricsService.recordLatency(requestId, "http.rate-limit-wait", waited);
+            }
+        }
+
+        host.permits.acquire();
+        if (!host.circuitBreaker.allowRequest()) {
+            host.permits.release();
+            host.rejected.increment();
+            this.metricsService.increment(requestId, "http.circuit-open");
+            Instant retryAt = host.circuitBreaker.retryAt();
+            throw new CircuitOpenException("Circuit for " + host.name + " is open until " + retryAt, retryAt);
+        }
+    }
+
+    private HttpRequest prepare(HostState host, HttpRequest request) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request, (name, value) -> true)
+                .header("Accept-Encoding", "gzip");
+        if (request.timeout().isEmpty()) {
+            builder.timeout(host.readTimeout);
+        }
+        return builder.build();
+    }
+
+    private void recordStatus(String requestId, HttpRequest request, HostState host, HttpResponse<?> response) {
+        int status = response.statusCode();
+        if (status >= 500) {
+            host.serverErrors.increment();
+        } else if (status >= 400) {
+            host.clientErrors.increment();
+        }
+        // other 4xx mean the request was wrong, not that the upstream is unhealthy
+        if (status >= 500 || status == 429) {
+            host.circuitBreaker.recordFailure();
+            this.persistCircuit(requestId, host);
+        } else {
+            host.circuitBreaker.recordSuccess();
+        }
+
+        if (status == 429 || status == 503) {
+            response.headers().firstValue("Retry-After").flatMap(this::parseRetryAfter).ifPresent(retryAt -> {
+                this.metricsService.increment(requestId, "http.retry-after");
+                this.pause(requestId, host, retryAt, "Retry-After");
+            });
+        }
+        response.headers().firstValue("X-App-Usage").ifPresent(usage ->
+                this.recordUsage(requestId, host, "http.app-usage", usage));
+        response.headers().firstValue("X-Business-Use-Case-Usage").ifPresent(usage ->
+                this.recordUsage(requestId, host, "http.business-usage", usage));
+
+        LOGGER.debug("[{}] {} {} -> HTTP {} ({})", requestId, request.method(), host.name,
+                response.statusCode(), response.version());
+    }
+
+    /**
+     * Graph API usage headers report, per quota, the percentage already spent and, once throttled, the minutes
+     * until calls are accepted again.
+     */
+    private void recordUsage(String requestId, HostState host, String metric, String header) {
+        try {
+            double usage = 0;
+            long regainMinutes = 0;
+            for (JsonNode quota : this.objectMapper.readTree(header).findParents("call_count")) {
+                for (String field : List.of("call_count", "total_cputime", "total_time")) {
+                    usage = Math.max(usage, quota.path(field).asDouble());
+                }
+                regainMinutes = Math.max(regainMinutes, quota.path("estimated_time_to_regain_access").asLong());
+            }
+            this.metricsService.gauge(requestId, metric, usage, MetricsService.PERCENT);
+            if (regainMinutes > 0) {
+                this.metricsService.increment(requestId, "http.throttled");
+                this.pause(requestId, host, Instant.now().plus(Duration.ofMinutes(regainMinutes)), metric);
+            }
+        } catch (IOException e) {
+            LOGGER.debug("[{}] Unreadable usage header from {}: {}", requestId, host.name, e.getMessage());
+        }
+    }
+
+    private void pause(String requestId, HostState host, Instant until, String reason) {
+        Instant limit = Instant.now().plus(Duration.ofSeconds(this.retryAfterMaxSeconds));
+        Instant retryAt = until.isAfter(limit) ? limit : until;
+        host.circuitBreaker.openUntil(retryAt);
+        this.persistCircuit(requestId, host);
+        LOGGER.warn("[{}] {} asked to back off ({}), failing calls fast until {}", requestId, host.name, reason,
+                retryAt);
+    }
+
+    private Optional<Instant> parseRetryAfter(String value) {
+        try {
+            return Optional.of(Instant.now().plusSeconds(Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                return Optional.of(ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+                        .toInstant());
+            } catch (DateTimeParseException ignored) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    private static InputStream decode(InputStream body, String contentEncoding) throws IOException {
+        return "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body) : body;
+    }
+
+    private static String decode(byte[] body, String contentEncoding) {
+        if (!"gzip".equalsIgnoreCase(contentEncoding)) {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode gzip response body", e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ResponseBodyReader<T> {
+        T read(int statusCode, InputStream body) throws IOException;
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private final LongAdder bytesRead;
+
+        private CountingInputStream(InputStream in, LongAdder bytesRead) {
+            super(in);
+            this.bytesRead = bytesRead;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                this.bytesRead.increment();
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count > 0) {
+                this.bytesRead.add(count);
+            }
+            return count;
+        }
+    }
+
+    private static final class HostState {
+        private final String name;
+        private final HttpClient client;
+        private final Duration readTimeout;
+        private final int maxConcurrentRequests;
+        private final Semaphore permits;
+        private final double permitsPerSecond;
+        private final int burst;
+        private final Map<String, TokenBucket> rateLimiters = new ConcurrentHashMap<>();
+        private final CircuitBreaker circuitBreaker;
+        private Instant persistedOpenUntil = Instant.MIN;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+        private final LongAdder bytesReceived = new LongAdder();
+        private final LongAdder totalLatencyMillis = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        private HostState(String name, HttpClient client, Duration readTimeout, int maxConcurrentRequests,
+                          double permitsPerSecond, int burst, CircuitBreaker circuitBreaker) {
+            this.name = name;
+            this.client = client;
+            this.readTimeout = readTimeout;
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            this.permits = new Semaphore(maxConcurrentRequests, true);
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+            this.circuitBreaker = circuitBreaker;
+        }
+
+        private TokenBucket rateLimiter(String endpoint) {
+            if (this.permitsPerSecond <= 0) {
+                return null;
+            }
+            return this.rateLimiters.computeIfAbsent(endpoint,
+                    key -> new TokenBucket(this.permitsPerSecond, this.burst));
+        }
+
+        private HttpHostStats toStats() {
+            return new HttpHostStats(this.name, this.requests.sum(), this.failures.sum(), this.clientErrors.sum(),
+                    this.serverErrors.sum(), this.bytesReceived.sum(), this.totalLatencyMillis.sum(),
+                    this.maxConcurrentRequests - this.permits.availablePermits(), this.rejected.sum(),
+                    this.circuitBreaker.state().name());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.andersonalexdurante.services;
+
+import com.andersonalexdurante.dto.PokemonDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Build-time entry point (see the {@code pokedex-pack} Maven profile) that downloads every species from
+ * PokeAPI and writes the binary Pokedex pack read by {@link PokedexPackService}.
+ * <p>
+ * Arguments: output file, PokeAPI pokemon URL (ending with {@code /}) and number of species.
+ */
+public class PokedexPackGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PokedexPackGenerator.class);
+    private static final String REQUEST_ID = "pokedex-pack";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            throw new IllegalArgumentException("Usage: PokedexPackGenerator <output file> <PokeAPI URL> <species count>");
+        }
+
+        Path output = Path.of(args[0]);
+        int speciesCount = Integer.parseInt(args[2]);
+
+        PokemonService pokemonService = new PokemonService();
+        pokemonService.pokeApiUrl = args[1];
+        pokemonService.objectMapper = new ObjectMapper();
+        pokemonService.pokedexPackService = new PokedexPackService();
+        pokemonService.outboundHttpClient = OutboundHttpClient.standalone(pokemonService.objectMapper);
+        pokemonService.outboundHttpClient.connectTimeoutMillis = 10_000;
+        pokemonService.outboundHttpClient.maxConcurrentRequestsPerHost = 1;
+
+        List<PokemonDTO> pokemons = new ArrayList<>(speciesCount);
+        for (int pokedexNumber = 1; pokedexNumber <= speciesCount; pokedexNumber++) {
+            pokemons.add(pokemonService.fetchPokemonData(REQUEST_ID, pokedexNumber));
+        }
+
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        Path temporary = Files.createTempFile(output.toAbsolutePath().getParent(), "pokedex", ".tmp");
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+            PokedexPackService.write(outputStream, pokemons, Instant.now());
+        }
+        Files.move(temporary, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        LOGGER.info("[{}] Pokedex pack with {} species written to {} ({} bytes)", REQUEST_ID, pokemons.size(),
+                output, Files.size(output));
+    }
+}
@@ -0,0 +1,204 @@
+package com.andersonalexdurante.services;
+
+import com.andersonalexdurante.dto.PokemonDTO;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads Pokemon data from the binary Pokedex pack produced at build time by {@link PokedexPackGenerator}.
+ * <p>
+ * Layout (big endian): magic, format version, species count, creation epoch millis, one record offset per
+ * Pokedex number (0 when missing) and then the records themselves. Strings are stored as an unsigned short
+ * length followed by UTF-8 bytes.
+ * <p>
+ * The pack is shipped in the Lambda zip, so a relative {@code POKEDEX_PACK_PATH} is resolved against
+ * {@code LAMBDA_TASK_ROOT}. It is mapped once per container, but its age is checked on every lookup so a
+ * long-lived container stops using it once it goes stale.
+ */
+@ApplicationScoped
+public class PokedexPackService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PokedexPackService.class);
+    static final int MAGIC = 0x504B4458;
+    static final short FORMAT_VERSION = 1;
+    private static final int COUNT_OFFSET = 6;
+    private static final int CREATED_AT_OFFSET = 10;
+    private static final int HEADER_SIZE = 18;
+
+    @ConfigProperty(name = "POKEDEX_PACK_PATH", defaultValue = "pokedex.pack")
+    String pokedexPackPath;
+
+    @ConfigProperty(name = "POKEDEX_PACK_MAX_AGE_DAYS", defaultValue = "180")
+    int pokedexPackMaxAgeDays;
+
+    private ByteBuffer pack;
+    private Instant packCreatedAt;
+    private boolean loaded;
+    private boolean staleLogged;
+
+    public Optional<PokemonDTO> findPokemon(String requestId, int pokedexNumber) {
+        ByteBuffer buffer = this.getPack(requestId);
+        if (buffer == null) {
+            return Optional.empty();
+        }
+
+        int count = buffer.getInt(COUNT_OFFSET);
+        if (pokedexNumber < 1 || pokedexNumber > count) {
+            LOGGER.warn("[{}] Pokemon #{} is not in the Pokedex pack ({} species)", requestId, pokedexNumber, count);
+            return Optional.empty();
+        }
+
+        int recordOffset = buffer.getInt(HEADER_SIZE + (pokedexNumber - 1) * Integer.BYTES);
+        if (recordOffset == 0) {
+            LOGGER.warn("[{}] Pokemon #{} is missing from the Pokedex pack", requestId, pokedexNumber);
+            return Optional.empty();
+        }
+
+        ByteBuffer record = buffer.duplicate().position(recordOffset);
+        int number = record.getInt();
+        String name = readString(record);
+        String habitat = readString(record);
+
+        int typeCount = Byte.toUnsignedInt(record.get());
+        List<String> types = new ArrayList<>(typeCount);
+        for (int i = 0; i < typeCount; i++) {
+            types.add(readString(record));
+        }
+
+        int descriptionCount = Short.toUnsignedInt(record.getShort());
+        List<String> descriptions = new ArrayList<>(descriptionCount);
+        for (int i = 0; i < descriptionCount; i++) {
+            descriptions.add(readString(record));
+        }
+
+        return Optional.of(new PokemonDTO(number, name, List.copyOf(types), List.copyOf(descriptions), habitat));
+    }
+
+    private synchronized ByteBuffer getPack(String requestId) {
+        if (!this.loaded) {
+            this.loaded = true;
+            this.pack = this.mapPack(requestId);
+        }
+        if (this.pack == null) {
+            return null;
+        }
+
+        if (this.packCreatedAt.plus(Duration.ofDays(this.pokedexPackMaxAgeDays)).isBefore(Instant.now())) {
+            if (!this.staleLogged) {
+                this.staleLogged = true;
+                LOGGER.warn("[{}] Pokedex pack is stale (created at {}). Using PokeAPI", requestId,
+                        this.packCreatedAt);
+            }
+            return null;
+        }
+        return this.pack;
+    }
+
+    private ByteBuffer mapPack(String requestId) {
+        Path path = this.resolvePackPath();
+        if (!Files.isRegularFile(path)) {
+            LOGGER.info("[{}] Pokedex pack not found at {}. Using PokeAPI", requestId, path);
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC
+                    || buffer.getShort(4) != FORMAT_VERSION) {
+                LOGGER.warn("[{}] Pokedex pack {} has an unknown format. Using PokeAPI", requestId, path);
+                return null;
+            }
+
+            this.packCreatedAt = Instant.ofEpochMilli(buffer.getLong(CREATED_AT_OFFSET));
+            LOGGER.info("[{}] Pokedex pack mapped: {} species, created at {}", requestId,
+                    buffer.getInt(COUNT_OFFSET), this.packCreatedAt);
+            return buffer;
+        } catch (IOException e) {
+            LOGGER.error("[{}] Failed to map Pokedex pack {}. Using PokeAPI", requestId, path, e);
+            return null;
+        }
+    }
+
+    private Path resolvePackPath() {
+        Path path = Path.of(this.pokedexPackPath);
+        String taskRoot = System.getenv("LAMBDA_TASK_ROOT");
+        if (path.isAbsolute() || taskRoot == null || taskRoot.isBlank()) {
+            return path;
+        }
+        return Path.of(taskRoot).resolve(path);
+    }
+
+    static void write(OutputStream outputStream, List<PokemonDTO> pokemons, Instant createdAt) throws IOException {
+        int count = pokemons.stream().mapToInt(PokemonDTO::number).max().orElse(0);
+        List<byte[]> records = new ArrayList<>();
+        int[] offsets = new int[count];
+        int offset = HEADER_SIZE + count * Integer.BYTES;
+
+        for (PokemonDTO pokemon : pokemons) {
+            byte[] record = encode(pokemon);
+            offsets[pokemon.number() - 1] = offset;
+            records.add(record);
+            offset += record.length;
+        }
+
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeShort(FORMAT_VERSION);
+        out.writeInt(count);
+        out.writeLong(createdAt.toEpochMilli());
+        for (int recordOffset : offsets) {
+            out.writeInt(recordOffset);
+        }
+        for (byte[] record : records) {
+            out.write(record);
+        }
+        out.flush();
+    }
+
+    private static byte[] encode(PokemonDTO pokemon) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(pokemon.number());
+        writeString(out, pokemon.name());
+        writeString(out, pokemon.habitat());
+        out.writeByte(pokemon.types().size());
+        for (String type : pokemon.types()) {
+            writeString(out, type);
+        }
+        out.writeShort(pokemon.descriptions().size());
+        for (String description : pokemon.descriptions()) {
+            writeString(out, description);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,105 +1,216 @@
 package com.andersonalexdurante.services;
 
+import com.andersonalexdurante.dto.DollarRate;
 import com.andersonalexdurante.dto.PokemonDTO;
 import com.andersonalexdurante.exceptions.PokemonException;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.StreamSupport;
+import java.util.Optional;
+import java.util.Set;
 
 @ApplicationScoped
 public class PokemonService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PokemonService.class);
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final SpeciesDocument EMPTY_SPECIES =
+            new SpeciesDocument(List.of("No description available."), "unknown");
+    @Inject
+    ObjectMapper objectMapper;
 
     @ConfigProperty(name = "POKEAPI_URL")
     String pokeApiUrl;
 
+    @Inject
+    PokedexPackService pokedexPackService;
+
+    @Inject
+    OutboundHttpClient outboundHttpClient;
+
     public PokemonDTO getPokemonData(String requestId, int pokedexNumber) {
+        Optional<PokemonDTO> packedPokemon = this.pokedexPackService.findPokemon(requestId, pokedexNumber);
+        if (packedPokemon.isPresent()) {
+            LOGGER.info("[{}] Pokemon loaded from Pokedex pack: {} (Pokedex Number: {})",
+                    requestId, packedPokemon.get().name(), pokedexNumber);
+            return packedPokemon.get();
+        }
+        return this.fetchPokemonData(requestId, pokedexNumber);
+    }
+
+    PokemonDTO fetchPokemonData(String requestId, int pokedexNumber) {
         String pokemonUrl = this.pokeApiUrl + pokedexNumber;
 
         LOGGER.info("[{}] Fetching Pokemon from URL: {}", requestId, pokemonUrl);
 
         try {
-            HttpResponse<String> response = HttpClient.newHttpClient()
-                    .send(HttpRequest.newBuilder()
-                            .uri(URI.create(pokemonUrl))
-                            .GET()
-                            .build(), HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() == 200) {
-                JsonNode rootNode = this.objectMapper.readTree(response.body());
-                String name = rootNode.get("species").get("name").asText().toUpperCase();
-                List<String> types = extractTypes(rootNode);
-
-                String speciesUrl = rootNode.get("species").get("url").asText();
-                JsonNode speciesData = fetchJsonFromUrl(speciesUrl);
-                List<String> descriptions = extractPokemonDescriptions(speciesData);
-                String habitat = extractHabitat(speciesData);
-
-                LOGGER.info("[{}] Successfully fetched Pokemon: {} (Pokedex Number: {})",
-                        requestId, name, pokedexNumber);
-
-                return new PokemonDTO(pokedexNumber, name, types, descriptions, habitat);
-            } else {
-                throw new PokemonException("Failed to fetch PokeAPI. HTTP status: " + response.statusCode());
-            }
+            PokemonDocument pokemon = this.outboundHttpClient.sendStreaming(requestId, HttpRequest.newBuilder()
+                    .uri(URI.create(pokemonUrl))
+                    .GET()
+                    .build(), (statusCode, body) -> {
+                if (statusCode != 200) {
+                    throw new PokemonException("Failed to fetch PokeAPI. HTTP status: " + statusCode);
+                }
+                return this.readPokemon(body);
+            });
+
+            SpeciesDocument species = this.fetchSpecies(requestId, pokemon.speciesUrl());
+
+            LOGGER.info("[{}] Successfully fetched Pokemon: {} (Pokedex Number: {})",
+                    requestId, pokemon.name(), pokedexNumber);
+
+            return new PokemonDTO(pokedexNumber, pokemon.name(), pokemon.types(), species.descriptions(),
+                    species.habitat());
         } catch (Exception ex) {
             throw new PokemonException("Failed to fetch PokeAPI.", ex);
         }
     }
 
-    public int getPokedexNumber(String dollarExchangeRate) {
-        int pokedexNumber = Integer.parseInt(dollarExchangeRate.split(",")[1]);
+    public int getPokedexNumber(DollarRate dollarExchangeRate) {
+        int pokedexNumber = dollarExchangeRate.pokedexNumber();
         LOGGER.debug("Calculated Pokedex number: #{}. Dollar Rate: ${}", pokedexNumber, dollarExchangeRate);
         return pokedexNumber;
     }
 
-    private List<String> extractTypes(JsonNode rootNode) {
+    PokemonDocument readPokemon(InputStream body) throws IOException {
+        String name = null;
+        String speciesUrl = null;
         List<String> types = new ArrayList<>();
-        rootNode.get("types").forEach(typeNode -> types.add(typeNode.get("type").get("name").asText()));
-        return types;
-    }
 
-    private List<String> extractPokemonDescriptions(JsonNode speciesData) {
-        List<String> descriptions = StreamSupport.stream(speciesData.get("flavor_text_entries").spliterator(), false)
-                .filter(entry -> "en".equals(entry.get("language").get("name").asText()))
-                .map(entry -> entry.get("flavor_text").asText().replace("\n", " ").replace("\f", " "))
-                .toList();
+        try (JsonParser parser = this.objectMapper.getFactory().createParser(body)) {
+            expectObject(parser, parser.nextToken());
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("species".equals(field) && value == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String speciesField = parser.currentName();
+                        parser.nextToken();
+                        switch (speciesField) {
+                            case "name" -> name = parser.getText().toUpperCase();
+                            case "url" -> speciesUrl = parser.getText();
+                            default -> parser.skipChildren();
+                        }
+                    }
+                } else if ("types".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            boolean isType = "type".equals(parser.currentName());
+                            parser.nextToken();
+                            if (isType) {
+                                types.add(readName(parser));
+                            } else {
+                                parser.skipChildren();
+                            }
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
 
-        return descriptions.isEmpty() ? List.of("No description available.") : descriptions;
+        if (name == null || speciesUrl == null) {
+            throw new PokemonException("PokeAPI response has no species");
+        }
+        return new PokemonDocument(name, speciesUrl, types);
     }
 
-    private String extractHabitat(JsonNode speciesData) {
-        if (speciesData.has("habitat") && !speciesData.get("habitat").isNull()) {
-            return speciesData.get("habitat").get("name").asText();
+    SpeciesDocument readSpecies(InputStream body) throws IOException {
+        Set<String> descriptions = new LinkedHashSet<>();
+        String habitat = null;
+
+        try (JsonParser parser = this.objectMapper.getFactory().createParser(body)) {
+            expectObject(parser, parser.nextToken());
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("flavor_text_entries".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        String flavorText = null;
+                        String language = null;
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            String entryField = parser.currentName();
+                            parser.nextToken();
+                            switch (entryField) {
+                                case "flavor_text" -> flavorText = parser.getText();
+                                case "language" -> language = readName(parser);
+                                default -> parser.skipChildren();
+                            }
+                        }
+                        if ("en".equals(language) && flavorText != null) {
+                            descriptions.add(flavorText.replace("\n", " ").replace("\f", " "));
+                        }
+                    }
+                } else if ("habitat".equals(field)) {
+                    habitat = readName(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
         }
-        return "unknown";
+
+        return new SpeciesDocument(
+                descriptions.isEmpty() ? List.of("No description available.") : List.copyOf(descriptions),
+                habitat != null ? habitat : "unknown");
     }
 
-    private JsonNode fetchJsonFromUrl(String url) {
+    private SpeciesDocument fetchSpecies(String requestId, String url) {
         try {
-            HttpResponse<String> response = HttpClient.newHttpClient()
-                    .send(HttpRequest.newBuilder().uri(URI.create(url)).GET().build(), HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() == 200) {
-                return objectMapper.readTree(response.body());
-            } else {
-                LOGGER.error("Failed to fetch JSON from URL: {} | HTTP Status: {}", url, response.statusCode());
-            }
+            return this.outboundHttpClient.sendStreaming(requestId,
+                    HttpRequest.newBuilder().uri(URI.create(url)).GET().build(), (statusCode, body) -> {
+                if (statusCode == 200) {
+                    return this.readSpecies(body);
+                }
+                LOGGER.error("Failed to fetch JSON from URL: {} | HTTP Status: {}", url, statusCode);
+                return EMPTY_SPECIES;
+            });
         } catch (Exception ex) {
             LOGGER.error("Exception while fetching JSON from URL: {} | Error: {}", url, ex.getMessage(), ex);
         }
-        return this.objectMapper.createObjectNode();
+        return EMPTY_SPECIES;
+    }
+
+    private static String readName(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String name = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            boolean isName = "name".equals(parser.currentName());
+            parser.nextToken();
+            if (isName) {
+                name = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return name;
+    }
+
+    private static void expectObject(JsonParser parser, JsonToken token) throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a JSON object but found " + token);
+        }
+    }
+
+    record PokemonDocument(String name, String speciesUrl, List<String> types) {
+    }
+
+    record SpeciesDocument(List<String> descriptions, String habitat) {
     }
 }
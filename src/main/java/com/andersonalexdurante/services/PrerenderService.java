@@ -0,0 +1,210 @@
+package com.andersonalexdurante.services;
+
+import com.andersonalexdurante.dto.Channel;
+import com.andersonalexdurante.dto.DollarRate;
+import com.andersonalexdurante.dto.PokemonDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.lambda.LambdaClient;
+import software.amazon.awssdk.services.lambda.model.InvocationType;
+import software.amazon.awssdk.services.lambda.model.InvokeRequest;
+import software.amazon.awssdk.services.lambda.model.InvokeResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Renders the videos for the rates closest to the one just posted, so that the next run finds its video
+ * (and the Pokemon data and background description it depends on) already cached. After a post on Lambda the
+ * work is handed to an asynchronous invocation of the {@code prerender} mode, so the posting invocation is not
+ * billed for it; the long-running rate watch runs it on a background thread within a bounded time. Old renders
+ * expire through the bucket's lifecycle rule (see {@link S3Service#markPostVideoUsed}).
+ */
+@ApplicationScoped
+public class PrerenderService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrerenderService.class);
+
+    @ConfigProperty(name = "PRERENDER_ENABLED", defaultValue = "false")
+    boolean prerenderEnabled;
+
+    @ConfigProperty(name = "PRERENDER_RADIUS", defaultValue = "3")
+    int prerenderRadius;
+
+    @ConfigProperty(name = "PRERENDER_MAX_RENDERS", defaultValue = "4")
+    int prerenderMaxRenders;
+
+    @ConfigProperty(name = "PRERENDER_MIN_REMAINING_SECONDS", defaultValue = "360")
+    long prerenderMinRemainingSeconds;
+
+    @ConfigProperty(name = "PRERENDER_MAX_SECONDS", defaultValue = "900")
+    long prerenderMaxSeconds;
+
+    @ConfigProperty(name = "AWS_LAMBDA_FUNCTION_NAME")
+    Optional<String> lambdaFunctionName;
+
+    @Inject
+    PokemonService pokemonService;
+    @Inject
+    BedrockService bedrockService;
+    @Inject
+    VideoService videoService;
+    @Inject
+    S3Service s3Service;
+    @Inject
+    LambdaClient lambdaClient;
+    @Inject
+    ObjectMapper objectMapper;
+
+    private final Set<String> queuedChannels = ConcurrentHashMap.newKeySet();
+    private ExecutorService executor;
+
+    @PostConstruct
+    void initExecutor() {
+        // otherwise every pre-render started after a post stops before its first candidate
+        if (this.prerenderMinRemainingSeconds >= this.prerenderMaxSeconds) {
+            throw new IllegalStateException("PRERENDER_MIN_REMAINING_SECONDS (" + this.prerenderMinRemainingSeconds
+                    + ") must be lower than PRERENDER_MAX_SECONDS (" + this.prerenderMaxSeconds + ")");
+        }
+        this.executor = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("prerender").factory());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return this.prerenderEnabled;
+    }
+
+    /**
+     * Starts a pre-render around the rate just posted without waiting for it: on Lambda as an asynchronous
+     * invocation of this function in {@code prerender} mode, elsewhere on the background thread.
+     */
+    public void schedulePrerender(String requestId, Channel channel, DollarRate postedDollarRate, Instant deadline) {
+        if (this.lambdaFunctionName.isEmpty()) {
+            this.prerenderNeighboursAsync(requestId, channel, postedDollarRate, deadline);
+            return;
+        }
+
+        try {
+            String payload = this.objectMapper.writeValueAsString(Map.of("mode", "prerender", "channel",
+                    channel.id()));
+            InvokeResponse response = this.lambdaClient.invoke(InvokeRequest.builder()
+                    .functionName(this.lambdaFunctionName.get())
+                    .invocationType(InvocationType.EVENT)
+                    .payload(SdkBytes.fromUtf8String(payload))
+                    .build());
+            LOGGER.info("[{}] Pre-render of {} invoked asynchronously (status: {})", requestId, channel.id(),
+                    response.statusCode());
+        } catch (Exception e) {
+            LOGGER.warn("[{}] Failed to invoke the pre-render of {}: {}", requestId, channel.id(), e.getMessage());
+        }
+    }
+
+    /**
+     * Queues a pre-render around the posted rate, bounded by {@code PRERENDER_MAX_SECONDS} and the deadline.
+     * A channel with a pre-render already queued is skipped; that one reads the rates once it starts.
+     */
+    void prerenderNeighboursAsync(String requestId, Channel channel, DollarRate postedDollarRate,
+                                         Instant deadline) {
+        if (!this.queuedChannels.add(channel.id())) {
+            LOGGER.info("[{}] Pre-render of {} already queued, skipping", requestId, channel.id());
+            return;
+        }
+
+        Instant maxDeadline = Instant.now().plusSeconds(this.prerenderMaxSeconds);
+        Instant boundedDeadline = deadline.isBefore(maxDeadline) ? deadline : maxDeadline;
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        this.executor.execute(() -> {
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            }
+            try {
+                this.queuedChannels.remove(channel.id());
+                this.prerenderNeighbours(requestId, channel, postedDollarRate, boundedDeadline);
+            } catch (RuntimeException e) {
+                LOGGER.warn("[{}] Pre-render of {} failed: {}", requestId, channel.id(), e.getMessage());
+            } finally {
+                MDC.clear();
+            }
+        });
+    }
+
+    public void prerenderNeighbours(String requestId, Channel channel, DollarRate postedDollarRate,
+                                    Instant deadline) {
+        LOGGER.info("[{}] [START] Pre-rendering videos of {} around rate {} (radius: {}, budget: {} renders)",
+                requestId, channel.id(), postedDollarRate, this.prerenderRadius, this.prerenderMaxRenders);
+
+        int rendered = 0;
+        int cached = 0;
+        for (DollarRate candidateRate : this.getNeighbourRates(postedDollarRate)) {
+            if (rendered >= this.prerenderMaxRenders) {
+                LOGGER.info("[{}] Pre-render budget of {} renders reached", requestId, this.prerenderMaxRenders);
+                break;
+            }
+            if (Duration.between(Instant.now(), deadline).toSeconds() < this.prerenderMinRemainingSeconds) {
+                LOGGER.info("[{}] Not enough time left to pre-render rate {}", requestId, candidateRate);
+                break;
+            }
+
+            try {
+                // the next post compares against the rate just posted, so the direction is already known
+                boolean dollarUp = candidateRate.compareTo(postedDollarRate) > 0;
+                PokemonDTO pokemon = this.pokemonService.getPokemonData(requestId,
+                        this.pokemonService.getPokedexNumber(candidateRate));
+                String background = this.bedrockService.generateImageBackgroundDescription(requestId, pokemon);
+
+                String videoKey = this.videoService.getPostVideoKey(channel, candidateRate, dollarUp, pokemon,
+                        background);
+                if (this.s3Service.postVideoExists(requestId, videoKey)) {
+                    cached++;
+                    continue;
+                }
+
+                LOGGER.info("[{}] Pre-rendering rate {} (Pokemon #{} - {})", requestId, candidateRate,
+                        pokemon.number(), pokemon.name());
+                this.videoService.generatePostVideo(requestId, channel, candidateRate, dollarUp, pokemon, background);
+                rendered++;
+            } catch (Exception e) {
+                LOGGER.warn("[{}] Failed to pre-render rate {}: {}", requestId, candidateRate, e.getMessage());
+            }
+        }
+
+        LOGGER.info("[{}] [END] Pre-rendering finished. Rendered: {}, already cached: {}", requestId, rendered,
+                cached);
+    }
+
+    List<DollarRate> getNeighbourRates(DollarRate dollarRate) {
+        List<DollarRate> neighbours = new ArrayList<>();
+        for (int distance = 1; distance <= this.prerenderRadius; distance++) {
+            for (int steps : new int[]{distance, -distance}) {
+                if (dollarRate.tenThousandths() + steps * dollarRate.stepSize() <= 0) {
+                    continue;
+                }
+                DollarRate candidate = dollarRate.plusSteps(steps);
+                if (candidate.pokedexNumber() > 0) {
+                    neighbours.add(candidate);
+                }
+            }
+        }
+        return neighbours;
+    }
+}
@@ -0,0 +1,171 @@
+package com.andersonalexdurante.services;
+
+import com.andersonalexdurante.dto.Channel;
+import com.andersonalexdurante.dto.CreateMediaContainerDTO;
+import com.andersonalexdurante.dto.PokemonDTO;
+import com.andersonalexdurante.dto.PublishMediaContainerDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeAsyncClient;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.lambda.LambdaClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Moves the one-off costs of the first invocation (SDK client construction, Jackson serializer lookup, TLS
+ * handshakes) to startup. On SnapStart the warmed state is captured in the snapshot: before the checkpoint the
+ * HTTP connections are dropped, and after the restore randomness is re-seeded and the connections re-opened.
+ */
+@ApplicationScoped
+public class PrimingService implements Resource {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrimingService.class);
+    private static final String PRIMING_REQUEST_ID = "priming";
+
+    @ConfigProperty(name = "PRIMING_ENABLED", defaultValue = "true")
+    boolean primingEnabled;
+
+    @ConfigProperty(name = "PRIMING_NETWORK_ENABLED", defaultValue = "true")
+    boolean networkPrimingEnabled;
+
+    @ConfigProperty(name = "POKEAPI_URL")
+    Optional<String> pokeApiUrl;
+    @ConfigProperty(name = "AWESOMEAPI_DOLLAR_URL")
+    Optional<String> awesomeApiDollarUrl;
+    @ConfigProperty(name = "WISEAPI_DOLLAR_URL")
+    Optional<String> wiseApiDollarUrl;
+    @ConfigProperty(name = "INSTAGRAM_GRAPH_API_URL")
+    Optional<String> instagramGraphApiUrl;
+
+    @Inject
+    ObjectMapper objectMapper;
+    @Inject
+    BedrockRuntimeClient bedrockRuntimeClient;
+    @Inject
+    BedrockRuntimeAsyncClient bedrockRuntimeAsyncClient;
+    @Inject
+    DynamoDbClient dynamoDbClient;
+    @Inject
+    LambdaClient lambdaClient;
+    @Inject
+    OutboundHttpClient outboundHttpClient;
+    @Inject
+    DynamoDBService dynamoDBService;
+    @Inject
+    S3Service s3Service;
+    @Inject
+    ChannelService channelService;
+    @Inject
+    RandomnessService randomnessService;
+    @Inject
+    MetricsService metricsService;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!this.primingEnabled) {
+            return;
+        }
+
+        this.prime("startup");
+        Core.getGlobalContext().register(this);
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+        LOGGER.info("[{}] Dropping HTTP connections before checkpoint", PRIMING_REQUEST_ID);
+        this.outboundHttpClient.reset();
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        long start = System.nanoTime();
+        this.randomnessService.reseed();
+        if (this.networkPrimingEnabled) {
+            this.primeNetwork();
+        }
+        LOGGER.info("[{}] Restored from snapshot, re-primed in {} ms", PRIMING_REQUEST_ID,
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    private void prime(String phase) {
+        long start = System.nanoTime();
+        List<String> report = new ArrayList<>();
+
+        this.timed("clients", report, this::primeClients);
+        this.timed("jackson", report, this::primeJackson);
+        if (this.networkPrimingEnabled) {
+            this.timed("network", report, this::primeNetwork);
+        }
+
+        Duration total = Duration.ofNanos(System.nanoTime() - start);
+        this.metricsService.recordLatency(PRIMING_REQUEST_ID, "priming.total", total);
+        this.metricsService.flush(PRIMING_REQUEST_ID, phase);
+        LOGGER.info("[{}] Priming ({}) finished in {} ms: {}", PRIMING_REQUEST_ID, phase, total.toMillis(),
+                String.join(", ", report));
+    }
+
+    private void timed(String step, List<String> report, Runnable action) {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            LOGGER.warn("[{}] Priming step {} failed: {}", PRIMING_REQUEST_ID, step, e.getMessage());
+        }
+        Duration duration = Duration.ofNanos(System.nanoTime() - start);
+        this.metricsService.recordLatency(PRIMING_REQUEST_ID, "priming." + step, duration);
+        report.add(step + " " + duration.toMillis() + " ms");
+    }
+
+    private void primeClients() {
+        // calling through the CDI proxies forces the producers to build the clients now
+        LOGGER.debug("[{}] Clients ready: {}, {}, {}, {}", PRIMING_REQUEST_ID,
+                this.bedrockRuntimeClient.serviceName(), this.bedrockRuntimeAsyncClient.serviceName(),
+                this.dynamoDbClient.serviceName(), this.lambdaClient.serviceName());
+    }
+
+    private void primeJackson() {
+        try {
+            PokemonDTO pokemon = new PokemonDTO(25, "PIKACHU", List.of("electric"),
+                    List.of("It keeps its tail raised to monitor its surroundings."), "forest");
+            this.objectMapper.readValue(this.objectMapper.writeValueAsString(pokemon), PokemonDTO.class);
+            this.objectMapper.readTree(this.objectMapper.writeValueAsString(
+                    new CreateMediaContainerDTO("https://example.com/video.mp4", "caption")));
+            this.objectMapper.readTree(this.objectMapper.writeValueAsString(new PublishMediaContainerDTO("0")));
+            this.objectMapper.readValue(this.objectMapper.writeValueAsString(Map.of("dollar_rate", "5,43",
+                    "dollar_up", true, "pokedex_number", 43)), Map.class);
+        } catch (Exception e) {
+            throw new IllegalStateException("Jackson priming failed", e);
+        }
+    }
+
+    private void primeNetwork() {
+        Stream.of(this.pokeApiUrl, this.awesomeApiDollarUrl, this.wiseApiDollarUrl, this.instagramGraphApiUrl)
+                .flatMap(Optional::stream)
+                .map(URI::create)
+                .map(uri -> URI.create(uri.getScheme() + "://" + uri.getAuthority() + "/"))
+                .distinct()
+                .forEach(uri -> this.outboundHttpClient.prime(PRIMING_REQUEST_ID, uri));
+
+        // read-only calls that open the SDK connection pools
+        Channel channel = this.channelService.getDefaultChannel();
+        this.dynamoDBService.getLastDollarRate(PRIMING_REQUEST_ID, channel.postsContextId());
+        this.s3Service.postVideoExists(PRIMING_REQUEST_ID,
+                this.s3Service.getPostVideoKey(channel.rendersPrefix(), "priming"));
+    }
+}
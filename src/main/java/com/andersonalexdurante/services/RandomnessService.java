@@ -10,7 +10,7 @@ import java.security.SecureRandom;
 @ApplicationScoped
 public class RandomnessService {
     private static final Logger LOGGER = LoggerFactory.getLogger(RandomnessService.class);
-    private final SecureRandom secureRandom = new SecureRandom();
+    private volatile SecureRandom secureRandom = new SecureRandom();
 
     public RandomSelection getRandomOptions(String requestId) {
         TimeOfDay randomTimeOfDay = getRandomEnum(TimeOfDay.values());
@@ -32,6 +32,17 @@ public class RandomnessService {
         return selection;
     }
 
+    public void reseed() {
+        // a restored snapshot would otherwise replay the random sequence of every other restored instance
+        SecureRandom reseeded = new SecureRandom();
+        reseeded.nextInt();
+        this.secureRandom = reseeded;
+    }
+
+    public long nextLong(long bound) {
+        return this.secureRandom.nextLong(bound);
+    }
+
     private <T> T getRandomEnum(T[] values) {
         if (values == null || values.length == 0) {
             return null;
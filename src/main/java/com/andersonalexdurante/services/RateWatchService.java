@@ -0,0 +1,202 @@
+package com.andersonalexdurante.services;
+
+import com.andersonalexdurante.dto.Channel;
+import com.andersonalexdurante.dto.DollarRate;
+import com.andersonalexdurante.interfaces.IDollarService;
+import com.andersonalexdurante.pipeline.PostingPipeline;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Long-running alternative to the scheduled Lambda: keeps each channel's last posted rate in memory, receives
+ * rates from polling and from {@code POST /rate-feed}, coalesces bursts and runs the posting pipeline on the
+ * channels whose last posted rate differs from the settled one. A rate that keeps moving is still published once the max
+ * wait passes; a rate whose publish failed is retried with exponential backoff instead of on every tick.
+ */
+@ApplicationScoped
+public class RateWatchService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RateWatchService.class);
+    private static final String WATCH_REQUEST_ID = "rate-watch";
+
+    @ConfigProperty(name = "RATE_WATCH_ENABLED", defaultValue = "false")
+    boolean rateWatchEnabled;
+
+    @ConfigProperty(name = "RATE_WATCH_POLL_INTERVAL_SECONDS", defaultValue = "30")
+    long pollIntervalSeconds;
+
+    @ConfigProperty(name = "RATE_WATCH_DEBOUNCE_MS", defaultValue = "10000")
+    long debounceMillis;
+
+    @ConfigProperty(name = "RATE_WATCH_MAX_WAIT_MS", defaultValue = "60000")
+    long maxWaitMillis;
+
+    @ConfigProperty(name = "RATE_WATCH_RETRY_BASE_SECONDS", defaultValue = "30")
+    long retryBaseSeconds;
+
+    @ConfigProperty(name = "RATE_WATCH_RETRY_MAX_SECONDS", defaultValue = "1800")
+    long retryMaxSeconds;
+
+    @Inject
+    @Named("dollarService")
+    IDollarService dollarService;
+    @Inject
+    DynamoDBService dynamoDBService;
+    @Inject
+    PostingPipeline postingPipeline;
+    @Inject
+    ChannelService channelService;
+    @Inject
+    MetricsService metricsService;
+
+    private final AtomicBoolean publishQueued = new AtomicBoolean();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService pipelineExecutor;
+    private ScheduledFuture<?> pendingFlush;
+    private long pendingSinceNanos;
+    private DollarRate latestRate;
+    private final Map<String, Optional<DollarRate>> lastPostedRates = new ConcurrentHashMap<>();
+    private DollarRate failedRate;
+    private int failedAttempts;
+    private Instant retryNotBefore = Instant.MIN;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!this.rateWatchEnabled) {
+            return;
+        }
+
+        for (Channel channel : this.channelService.getChannels()) {
+            this.lastPostedRates.put(channel.id(), this.dynamoDBService.getLastDollarRate(WATCH_REQUEST_ID,
+                    channel.postsContextId()));
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("rate-watch").factory());
+        this.pipelineExecutor = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("rate-publish").factory());
+
+        if (this.pollIntervalSeconds > 0) {
+            this.scheduler.scheduleWithFixedDelay(this::poll, 0, this.pollIntervalSeconds, TimeUnit.SECONDS);
+        }
+        LOGGER.info("[{}] Rate watch started. Last posted rates: {}, poll interval: {} s, debounce: {} ms",
+                WATCH_REQUEST_ID, this.lastPostedRates, this.pollIntervalSeconds, this.debounceMillis);
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (this.scheduler != null) {
+            this.scheduler.shutdownNow();
+            this.pipelineExecutor.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return this.rateWatchEnabled;
+    }
+
+    public int getRateDecimals() {
+        return this.dollarService.getRateDecimals();
+    }
+
+    public synchronized void onRate(String source, DollarRate dollarExchangeRate) {
+        if (!this.rateWatchEnabled) {
+            throw new IllegalStateException("Rate watch mode is disabled");
+        }
+
+        LOGGER.debug("[{}] Rate {} received from {}", WATCH_REQUEST_ID, dollarExchangeRate, source);
+        this.latestRate = dollarExchangeRate;
+        long now = System.nanoTime();
+        if (this.pendingFlush == null || this.pendingFlush.isDone()) {
+            this.pendingSinceNanos = now;
+        } else {
+            this.pendingFlush.cancel(false);
+        }
+        // the debounce restarts with every tick, but never past the max wait since the first pending one
+        long untilMaxWait = this.maxWaitMillis - TimeUnit.NANOSECONDS.toMillis(now - this.pendingSinceNanos);
+        long delay = Math.max(0, Math.min(this.debounceMillis, untilMaxWait));
+        this.pendingFlush = this.scheduler.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void poll() {
+        try {
+            this.onRate("poll", this.dollarService.getDollarExchangeRate(WATCH_REQUEST_ID));
+        } catch (Exception e) {
+            LOGGER.warn("[{}] Failed to poll dollar rate: {}", WATCH_REQUEST_ID, e.getMessage());
+        }
+    }
+
+    private void flush() {
+        if (this.publishQueued.compareAndSet(false, true)) {
+            this.pipelineExecutor.submit(this::publishLatestRate);
+        }
+    }
+
+    private void publishLatestRate() {
+        this.publishQueued.set(false);
+        DollarRate rate;
+        Instant retryAt;
+        synchronized (this) {
+            rate = this.latestRate;
+            retryAt = rate != null && rate.equals(this.failedRate) ? this.retryNotBefore : Instant.MIN;
+        }
+
+        Map<String, Optional<DollarRate>> lastRates = Map.copyOf(this.lastPostedRates);
+        if (rate == null || lastRates.values().stream()
+                .noneMatch(lastRate -> this.dollarService.dollarRateChanged(lastRate, rate))) {
+            LOGGER.debug("[{}] Settled rate {} did not change", WATCH_REQUEST_ID, rate);
+            return;
+        }
+        if (Instant.now().isBefore(retryAt)) {
+            LOGGER.debug("[{}] Rate {} failed to publish, next attempt at {}", WATCH_REQUEST_ID, rate, retryAt);
+            return;
+        }
+
+        String requestId = UUID.randomUUID().toString();
+        MDC.put("requestId", requestId);
+        LOGGER.info("[{}] Dollar rate changed {} -> {}. Publishing", requestId, lastRates, rate);
+        try {
+            // channels that posted are not posted again when another channel's failure is retried
+            this.postingPipeline.publish(requestId, rate, lastRates, Instant.MAX,
+                    channel -> this.lastPostedRates.put(channel.id(), Optional.of(rate)));
+            synchronized (this) {
+                this.failedRate = null;
+                this.failedAttempts = 0;
+            }
+        } catch (Exception e) {
+            LOGGER.error("[{}] [ERROR] Failed to publish rate {}. - {}", requestId, rate, e.getMessage(), e);
+            this.metricsService.increment(requestId, "failure.run");
+            this.scheduleRetry(requestId, rate);
+        } finally {
+            this.metricsService.flush(requestId, WATCH_REQUEST_ID);
+            MDC.clear();
+        }
+    }
+
+    private synchronized void scheduleRetry(String requestId, DollarRate rate) {
+        this.failedAttempts = rate.equals(this.failedRate) ? this.failedAttempts + 1 : 1;
+        this.failedRate = rate;
+        long backoffSeconds = Math.min(this.retryMaxSeconds,
+                this.retryBaseSeconds << Math.min(this.failedAttempts - 1, 20));
+        this.retryNotBefore = Instant.now().plusSeconds(backoffSeconds);
+        LOGGER.warn("[{}] Rate {} failed {} time(s), retrying in {} s", requestId, rate, this.failedAttempts,
+                backoffSeconds);
+        // without this, a feed-only watch (no polling) would never try again
+        this.scheduler.schedule(this::flush, backoffSeconds, TimeUnit.SECONDS);
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
@@ -11,19 +12,134 @@ import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequ
 
 import java.net.URL;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
 
 @ApplicationScoped
 public class S3Service {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(S3Service.class);
     private static final String BUCKET = "pokedolarbucket";
-    private static final String LAST_POST_VIDEO = "lastPost.mp4";
+    public static final String RENDERS_PREFIX = "renders/";
+    private static final String VIDEO_CONTENT_TYPE = "video/mp4";
+    // where renderers that predate output_key still write every video
+    private static final String LEGACY_POST_VIDEO = "lastPost.mp4";
 
     @Inject
     S3Presigner s3Presigner;
+    @Inject
+    S3Client s3Client;
+
+    public URL getPostVideoUrl(String requestId, String videoKey) {
+        return this.generatePresignedUrl(requestId, videoKey);
+    }
+
+    public String getPostVideoKey(String rendersPrefix, String contentHash) {
+        return rendersPrefix + contentHash + ".mp4";
+    }
+
+    public boolean postVideoExists(String requestId, String videoKey) {
+        try {
+            this.s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(BUCKET)
+                    .key(videoKey)
+                    .build());
+            LOGGER.info("[{}] Rendered video found: {}", requestId, videoKey);
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return false;
+            }
+            LOGGER.warn("[{}] Failed to check rendered video {}: {}", requestId, videoKey, e.getMessage());
+            return false;
+        }
+    }
 
-    public URL getPostVideoUrl(String requestId) {
-        return this.generatePresignedUrl(requestId, LAST_POST_VIDEO);
+    public boolean waitForPostVideo(String requestId, String videoKey, Instant modifiedSince, Duration budget,
+                                    Duration pollInterval) {
+        Instant deadline = Instant.now().plus(budget);
+        LOGGER.info("[{}] Waiting up to {} s for object {} to be written", requestId, budget.toSeconds(), videoKey);
+        try {
+            while (Instant.now().isBefore(deadline)) {
+                Thread.sleep(pollInterval.toMillis());
+                if (this.isWrittenSince(requestId, videoKey, modifiedSince)
+                        || this.adoptLegacyPostVideo(requestId, videoKey, modifiedSince)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        LOGGER.warn("[{}] Object {} was not written within {} s", requestId, videoKey, budget.toSeconds());
+        return false;
+    }
+
+    /**
+     * Copies a video a legacy renderer wrote to {@code lastPost.mp4} since the given instant to the
+     * content-addressed key, so renderers that ignore {@code output_key} keep working until they are updated.
+     */
+    public boolean adoptLegacyPostVideo(String requestId, String videoKey, Instant modifiedSince) {
+        if (!this.isWrittenSince(requestId, LEGACY_POST_VIDEO, modifiedSince)) {
+            return false;
+        }
+        this.s3Client.copyObject(CopyObjectRequest.builder()
+                .sourceBucket(BUCKET)
+                .sourceKey(LEGACY_POST_VIDEO)
+                .destinationBucket(BUCKET)
+                .destinationKey(videoKey)
+                .build());
+        LOGGER.warn("[{}] Renderer wrote {} instead of {}, copied it over", requestId, LEGACY_POST_VIDEO,
+                videoKey);
+        return true;
+    }
+
+    /**
+     * Copies a reused render onto itself, which refreshes its Last-Modified. The bucket's lifecycle rule on the
+     * renders prefix (expire after N days) then only removes renders that nobody has used for N days, instead of
+     * the ones that are old but still posted. Failures are only logged; the worst case is a re-render.
+     */
+    public void markPostVideoUsed(String requestId, String videoKey) {
+        try {
+            this.s3Client.copyObject(CopyObjectRequest.builder()
+                    .sourceBucket(BUCKET)
+                    .sourceKey(videoKey)
+                    .destinationBucket(BUCKET)
+                    .destinationKey(videoKey)
+                    .metadataDirective(MetadataDirective.REPLACE)
+                    .contentType(VIDEO_CONTENT_TYPE)
+                    .metadata(Map.of("last-used", Instant.now().toString()))
+                    .build());
+            LOGGER.debug("[{}] Marked rendered video {} as used", requestId, videoKey);
+        } catch (Exception ex) {
+            LOGGER.warn("[{}] Failed to mark rendered video {} as used: {}", requestId, videoKey, ex.getMessage());
+        }
+    }
+
+    private boolean isWrittenSince(String requestId, String key, Instant modifiedSince) {
+        // S3 only keeps second precision for Last-Modified
+        Instant threshold = modifiedSince.truncatedTo(ChronoUnit.SECONDS);
+        try {
+            HeadObjectResponse response = this.s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(BUCKET)
+                    .key(key)
+                    .build());
+            if (!response.lastModified().isBefore(threshold)) {
+                LOGGER.info("[{}] Object {} is available (last modified at {})", requestId, key,
+                        response.lastModified());
+                return true;
+            }
+        } catch (NoSuchKeyException e) {
+            LOGGER.debug("[{}] Object {} does not exist yet", requestId, key);
+        } catch (S3Exception e) {
+            if (e.statusCode() != 404) {
+                throw e;
+            }
+        }
+        return false;
     }
 
     private URL generatePresignedUrl(String requestId, String key) {
@@ -1,23 +1,79 @@
 package com.andersonalexdurante.services;
 
+import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.services.ssm.SsmClient;
 import software.amazon.awssdk.services.ssm.model.GetParameterRequest;
 import software.amazon.awssdk.services.ssm.model.GetParameterResponse;
+import software.amazon.awssdk.services.ssm.model.GetParametersRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersResponse;
 import software.amazon.awssdk.services.ssm.model.SsmException;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @ApplicationScoped
 public class SsmService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SsmService.class);
+    private static final int GET_PARAMETERS_BATCH_SIZE = 10;
 
     @Inject
     SsmClient ssmClient;
 
+    @ConfigProperty(name = "SSM_CACHE_TTL_SECONDS", defaultValue = "900")
+    long cacheTtlSeconds;
+
+    @ConfigProperty(name = "SSM_PREFETCH_PARAMETERS", defaultValue = "instagram_access_token,wise_api_token")
+    List<String> prefetchParameters;
+
+    private final Map<String, CachedParameter> cache = new ConcurrentHashMap<>();
+
+    void prefetchOnStartup(@Observes StartupEvent event) {
+        this.prefetch("startup", this.prefetchParameters);
+    }
+
+    public void prefetch(String requestId, List<String> parameterNames) {
+        for (int from = 0; from < parameterNames.size(); from += GET_PARAMETERS_BATCH_SIZE) {
+            List<String> batch = parameterNames.subList(from,
+                    Math.min(from + GET_PARAMETERS_BATCH_SIZE, parameterNames.size()));
+            LOGGER.info("[{}] Prefetching parameters {} from AWS Parameter Store", requestId, batch);
+            try {
+                GetParametersResponse response = this.ssmClient.getParameters(GetParametersRequest.builder()
+                        .names(batch)
+                        .withDecryption(true)
+                        .build());
+
+                Instant expiresAt = this.expiresAt();
+                response.parameters().forEach(parameter ->
+                        this.cache.put(parameter.name(), new CachedParameter(parameter.value(), expiresAt)));
+                if (response.hasInvalidParameters() && !response.invalidParameters().isEmpty()) {
+                    LOGGER.warn("[{}] Parameters not found in AWS Parameter Store: {}", requestId,
+                            response.invalidParameters());
+                }
+            } catch (SdkException e) {
+                // a prefetch is only an optimisation: network or credential failures must not abort startup
+                LOGGER.warn("[{}] Failed to prefetch parameters, they will be fetched on demand", requestId, e);
+            }
+        }
+    }
+
     public String getStringParameterWithDecryption(String requestId, String parameterName) {
+        CachedParameter cached = this.cache.get(parameterName);
+        if (cached != null && Instant.now().isBefore(cached.expiresAt())) {
+            LOGGER.debug("[{}] Parameter {} served from cache", requestId, parameterName);
+            return cached.value();
+        }
+
         LOGGER.info("[{}] Getting parameter {} from AWS Parameter Store", requestId, parameterName);
         try {
             GetParameterRequest request = GetParameterRequest.builder()
@@ -27,6 +83,7 @@ public class SsmService {
 
             GetParameterResponse response = this.ssmClient.getParameter(request);
             LOGGER.info("[{}] Parameter recovered!", requestId);
+            this.cache.put(parameterName, new CachedParameter(response.parameter().value(), this.expiresAt()));
             return response.parameter().value();
         } catch (SsmException e) {
             LOGGER.error("[{}] Error while getting parameter from AWS Parameter Store!", requestId, e);
@@ -34,4 +91,16 @@ public class SsmService {
         }
     }
 
+    public void invalidate(String requestId, String parameterName) {
+        if (this.cache.remove(parameterName) != null) {
+            LOGGER.info("[{}] Cached parameter {} invalidated", requestId, parameterName);
+        }
+    }
+
+    private Instant expiresAt() {
+        return Instant.now().plus(Duration.ofSeconds(this.cacheTtlSeconds));
+    }
+
+    private record CachedParameter(String value, Instant expiresAt) {
+    }
 }
@@ -0,0 +1,53 @@
+package com.andersonalexdurante.services;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiter allowing {@code permitsPerSecond} on average with bursts of up to {@code burst} permits.
+ * Callers that find the bucket empty reserve a future token and sleep until it is due, so waiting callers
+ * are served in arrival order without busy polling.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Token bucket needs a positive rate and burst");
+        }
+        this.capacity = burst;
+        this.tokensPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            this.refill();
+            this.tokens -= 1;
+            waitNanos = this.tokens >= 0 ? 0 : (long) (-this.tokens / this.tokensPerNano);
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    public synchronized boolean tryAcquire() {
+        this.refill();
+        if (this.tokens >= 1) {
+            this.tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        this.tokens = Math.min(this.capacity, this.tokens + (now - this.lastRefillNanos) * this.tokensPerNano);
+        this.lastRefillNanos = now;
+    }
+}
@@ -1,85 +1,83 @@
 package com.andersonalexdurante.services;
 
+import com.andersonalexdurante.dto.Channel;
+import com.andersonalexdurante.dto.DollarRate;
 import com.andersonalexdurante.dto.PokemonDTO;
 import com.andersonalexdurante.exceptions.VideoException;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.core.SdkBytes;
-import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
-import software.amazon.awssdk.http.SdkHttpClient;
-import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
-import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.lambda.LambdaClient;
+import software.amazon.awssdk.services.lambda.model.InvocationType;
 import software.amazon.awssdk.services.lambda.model.InvokeRequest;
 import software.amazon.awssdk.services.lambda.model.InvokeResponse;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
 
 @ApplicationScoped
 public class VideoService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(VideoService.class);
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Inject
+    ObjectMapper objectMapper;
     @ConfigProperty(name = "IMAGE_GENERATOR_LAMBDA")
     String imageGeneratorLambda;
+    @ConfigProperty(name = "IMAGE_GENERATOR_INVOCATION_MODE", defaultValue = "SYNC")
+    String imageGeneratorInvocationMode;
+    @ConfigProperty(name = "IMAGE_GENERATOR_ASYNC_BUDGET_SECONDS", defaultValue = "330")
+    long imageGeneratorAsyncBudgetSeconds;
+    @ConfigProperty(name = "IMAGE_GENERATOR_ASYNC_POLL_INTERVAL_MS", defaultValue = "5000")
+    long imageGeneratorAsyncPollIntervalMillis;
+    @ConfigProperty(name = "RENDER_CACHE_VERSION", defaultValue = "1")
+    String renderCacheVersion;
 
-    public void generatePostVideo(String requestId, String dollarExchangeRate, boolean dollarup,
-                                  PokemonDTO newPokemon, String backgroundImageDescription) {
+    @Inject
+    LambdaClient lambdaClient;
+    @Inject
+    S3Service s3Service;
+    @Inject
+    MetricsService metricsService;
+
+    public String generatePostVideo(String requestId, Channel channel, DollarRate dollarExchangeRate,
+                                    boolean dollarup, PokemonDTO newPokemon, String backgroundImageDescription) {
         LOGGER.info("[{}] Starting video generation for Pokemon #{} - {}",
                 requestId, newPokemon.number(), newPokemon.name());
 
-        SdkHttpClient urlClient = UrlConnectionHttpClient.builder()
-                .connectionTimeout(Duration.ofSeconds(10))      // TCP connect
-                .socketTimeout(Duration.ofMinutes(5))           // wait for data
-                .build();
-
-        ClientOverrideConfiguration overrideConfig = ClientOverrideConfiguration.builder()
-                .apiCallTimeout(Duration.ofMinutes(6)) // Total API call timeout
-                .apiCallAttemptTimeout(Duration.ofMinutes(6)) // Timeout for individual attempts
-                .build();
+        String videoKey = this.getPostVideoKey(channel, dollarExchangeRate, dollarup, newPokemon,
+                backgroundImageDescription);
+        if (this.s3Service.postVideoExists(requestId, videoKey)) {
+            LOGGER.info("[{}] Reusing rendered video {}", requestId, videoKey);
+            this.s3Service.markPostVideoUsed(requestId, videoKey);
+            return videoKey;
+        }
 
-        try (LambdaClient lambdaClient = LambdaClient.builder()
-                .httpClient(urlClient)
-                .region(Region.US_EAST_2)
-                .overrideConfiguration(overrideConfig)
-                .credentialsProvider(DefaultCredentialsProvider.create())
-                .build()) {
-
-            Map<String, Object> payloadMap = new HashMap<>();
-            payloadMap.put("dollar_rate", dollarExchangeRate);
-            payloadMap.put("dollar_up", dollarup);
-            payloadMap.put("pokedex_number", newPokemon.number());
-            payloadMap.put("pokemon_name", newPokemon.name());
-            payloadMap.put("background_description", backgroundImageDescription);
-
-            String jsonPayload = this.objectMapper.writeValueAsString(payloadMap);
+        try {
+            String jsonPayload = this.createRenderPayload(dollarExchangeRate, dollarup, newPokemon,
+                    backgroundImageDescription, videoKey);
             LOGGER.debug("[{}] JSON payload created: {}", requestId, jsonPayload.length());
+            this.metricsService.gauge(requestId, "payload.render", jsonPayload.length(), MetricsService.BYTES);
 
-            LOGGER.info("[{}] Invoking Lambda function: {}", requestId, this.imageGeneratorLambda);
-            InvokeRequest request = InvokeRequest.builder()
-                    .functionName(this.imageGeneratorLambda)
-                    .payload(SdkBytes.fromUtf8String(jsonPayload))
-                    .build();
-
-            InvokeResponse response = lambdaClient.invoke(request);
-            String responseJson = response.payload().asUtf8String();
-            LOGGER.debug("[{}] Lambda response received: {}", requestId, responseJson.length());
-
-            Map  responseMap = this.objectMapper.readValue(responseJson, Map.class);
-            Integer statusCode = (Integer) responseMap.get("statusCode");
-            if (statusCode == null || statusCode != 200) {
-                LOGGER.error("[{}] Python lambda returned error for generating video: {}", requestId, statusCode);
-                throw new VideoException("Python lambda returned error for generating video: " + statusCode);
+            if ("ASYNC".equalsIgnoreCase(this.imageGeneratorInvocationMode)) {
+                this.invokeAsync(requestId, jsonPayload, videoKey);
+            } else {
+                this.invokeSync(requestId, jsonPayload, videoKey);
             }
 
             LOGGER.info("[{}] Video generated successfully!", requestId);
+            return videoKey;
         } catch (IOException e) {
             LOGGER.error("[{}] Failed to generate video!", requestId, e);
             throw new RuntimeException("Failed to generate video", e);
@@ -88,5 +86,88 @@ public class VideoService {
             throw new VideoException("Unexpected error during video generation", e);
         }
     }
-}
 
+    String createRenderPayload(DollarRate dollarExchangeRate, boolean dollarup, PokemonDTO newPokemon,
+                               String backgroundImageDescription, String videoKey)
+            throws JsonProcessingException {
+        Map<String, Object> payloadMap = new HashMap<>();
+        payloadMap.put("dollar_rate", dollarExchangeRate.toString());
+        payloadMap.put("dollar_up", dollarup);
+        payloadMap.put("pokedex_number", newPokemon.number());
+        payloadMap.put("pokemon_name", newPokemon.name());
+        payloadMap.put("background_description", backgroundImageDescription);
+        payloadMap.put("output_key", videoKey);
+        return this.objectMapper.writeValueAsString(payloadMap);
+    }
+
+    private void invokeSync(String requestId, String jsonPayload, String videoKey) throws IOException {
+        Instant invokedAt = Instant.now();
+        LOGGER.info("[{}] Invoking Lambda function: {}", requestId, this.imageGeneratorLambda);
+        InvokeRequest request = InvokeRequest.builder()
+                .functionName(this.imageGeneratorLambda)
+                .payload(SdkBytes.fromUtf8String(jsonPayload))
+                .build();
+
+        InvokeResponse response = this.lambdaClient.invoke(request);
+        String responseJson = response.payload().asUtf8String();
+        LOGGER.debug("[{}] Lambda response received: {}", requestId, responseJson.length());
+
+        Map  responseMap = this.objectMapper.readValue(responseJson, Map.class);
+        Integer statusCode = (Integer) responseMap.get("statusCode");
+        if (statusCode == null || statusCode != 200) {
+            LOGGER.error("[{}] Python lambda returned error for generating video: {}", requestId, statusCode);
+            throw new VideoException("Python lambda returned error for generating video: " + statusCode);
+        }
+
+        // a 200 does not guarantee the upload; the key is presigned without being read again
+        if (!this.s3Service.postVideoExists(requestId, videoKey)
+                && !this.s3Service.adoptLegacyPostVideo(requestId, videoKey, invokedAt)) {
+            LOGGER.error("[{}] Python lambda returned 200 but {} was not written", requestId, videoKey);
+            throw new VideoException("Python lambda did not write the rendered video: " + videoKey);
+        }
+    }
+
+    private void invokeAsync(String requestId, String jsonPayload, String videoKey) {
+        Instant invokedAt = Instant.now();
+        LOGGER.info("[{}] Invoking Lambda function asynchronously: {}", requestId, this.imageGeneratorLambda);
+        InvokeRequest request = InvokeRequest.builder()
+                .functionName(this.imageGeneratorLambda)
+                .invocationType(InvocationType.EVENT)
+                .payload(SdkBytes.fromUtf8String(jsonPayload))
+                .build();
+
+        InvokeResponse response = this.lambdaClient.invoke(request);
+        if (response.statusCode() != 202) {
+            LOGGER.error("[{}] Python lambda rejected the asynchronous invocation: {}", requestId,
+                    response.statusCode());
+            throw new VideoException("Python lambda rejected the asynchronous invocation: " + response.statusCode());
+        }
+
+        boolean rendered = this.s3Service.waitForPostVideo(requestId, videoKey, invokedAt,
+                Duration.ofSeconds(this.imageGeneratorAsyncBudgetSeconds),
+                Duration.ofMillis(this.imageGeneratorAsyncPollIntervalMillis));
+        if (!rendered) {
+            throw new VideoException("Video was not rendered within " + this.imageGeneratorAsyncBudgetSeconds
+                    + " seconds");
+        }
+    }
+
+    public String getPostVideoKey(Channel channel, DollarRate dollarExchangeRate, boolean dollarup,
+                                  PokemonDTO pokemon, String backgroundImageDescription) {
+        return this.s3Service.getPostVideoKey(channel.rendersPrefix(), this.getRenderHash(dollarExchangeRate,
+                dollarup, pokemon, backgroundImageDescription));
+    }
+
+    private String getRenderHash(DollarRate dollarExchangeRate, boolean dollarup, PokemonDTO pokemon,
+                                 String backgroundImageDescription) {
+        String renderInputs = String.join("\n", this.renderCacheVersion, dollarExchangeRate.toString(),
+                String.valueOf(dollarup), String.valueOf(pokemon.number()), pokemon.name(),
+                backgroundImageDescription);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(renderInputs.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.andersonalexdurante.services;
 
+import com.andersonalexdurante.dto.DollarRate;
 import com.andersonalexdurante.exceptions.DollarException;
 import com.andersonalexdurante.interfaces.IDollarService;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -10,8 +12,8 @@ import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 
@@ -19,8 +21,10 @@ import java.net.http.HttpResponse;
 public class WiseApiDollarService implements IDollarService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(WiseApiDollarService.class);
+    private static final int RATE_DECIMALS = 3;
     private static final String WISE_API_TOKEN_PARAMETER = "wise_api_token";
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Inject
+    ObjectMapper objectMapper;
 
     @ConfigProperty(name = "WISEAPI_DOLLAR_URL")
     String dollarApiUrl;
@@ -28,8 +32,16 @@ public class WiseApiDollarService implements IDollarService {
     @Inject
     SsmService ssmService;
 
+    @Inject
+    OutboundHttpClient outboundHttpClient;
+
+    @Override
+    public int getRateDecimals() {
+        return RATE_DECIMALS;
+    }
+
     @Override
-    public String getDollarExchangeRate(String requestId) {
+    public DollarRate getDollarExchangeRate(String requestId) {
         LOGGER.info("[{}] [START] Fetching the dollar exchange rate from Wise API", requestId);
 
         try {
@@ -41,17 +53,18 @@ public class WiseApiDollarService implements IDollarService {
                     .GET()
                     .build();
 
-            HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = this.outboundHttpClient.send(requestId, request);
 
             if (response.statusCode() == 200) {
-                JsonNode rootNode = this.objectMapper.readTree(response.body());
-                String exchangeRate = rootNode.get(0).path("rate").asText();
-                String formattedBid = exchangeRate.substring(0, 5).replace('.', ',');
+                DollarRate dollarRate = this.readRate(response.body());
 
-                LOGGER.info("[{}] [SUCCESS] Wise API Dollar exchange rate fetched: BRL ${}", requestId, formattedBid);
-                return formattedBid;
+                LOGGER.info("[{}] [SUCCESS] Wise API Dollar exchange rate fetched: BRL ${}", requestId, dollarRate);
+                return dollarRate;
             }
 
+            if (response.statusCode() == 401 || response.statusCode() == 403) {
+                this.ssmService.invalidate(requestId, WISE_API_TOKEN_PARAMETER);
+            }
             LOGGER.warn("[{}] [WARN] Failed to fetch dollar exchange rate. HTTP status: {}", requestId, response.statusCode());
             throw new DollarException("Failed to fetch Dollar Exchange Rate. HTTP status: " + response.statusCode());
 
@@ -60,4 +73,18 @@ public class WiseApiDollarService implements IDollarService {
             throw new DollarException("Error trying to fetch Dollar Exchange Rate.", e);
         }
     }
+
+    private DollarRate readRate(String responseBody) throws IOException {
+        try (JsonParser parser = this.objectMapper.getFactory().createParser(responseBody)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME && "rate".equals(parser.currentName())) {
+                    parser.nextToken();
+                    return DollarRate.parse(parser.getTextCharacters(), parser.getTextOffset(),
+                            parser.getTextLength(), RATE_DECIMALS);
+                }
+            }
+        }
+        throw new DollarException("Dollar Exchange Rate not found in the response");
+    }
 }